@@ -0,0 +1,88 @@
+package com.icl.auth.benchmark;
+
+import com.icl.auth.audit.AuditLog;
+import com.icl.auth.exception.UserNotFoundException;
+import com.icl.auth.exception.WrongPasswordException;
+import com.icl.auth.metrics.AuthMetrics;
+import com.icl.auth.model.User;
+import com.icl.auth.security.PasswordHashingExecutor;
+import com.icl.auth.security.Role;
+import com.icl.auth.service.DatabaseExecutor;
+import com.icl.auth.service.RegistrationWriter;
+import com.icl.auth.service.UserAuthorizationServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.validation.Validation;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UserAuthorizationServiceImpl#authorize(String, String)} on top of an in-memory repository
+ * with BCrypt at the default cost
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorizeBenchmark {
+    private UserAuthorizationServiceImpl service;
+    private PasswordHashingExecutor hashingExecutor;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+        InMemoryUserRepository repository = new InMemoryUserRepository();
+        hashingExecutor = new PasswordHashingExecutor(1, 16, 1, new SimpleMeterRegistry());
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        service = new UserAuthorizationServiceImpl(repository, encoder, hashingExecutor,
+                Validation.buildDefaultValidatorFactory().getValidator(), new AuthMetrics(new SimpleMeterRegistry()),
+                beanFactory.getBeanProvider(DatabaseExecutor.class),
+                beanFactory.getBeanProvider(RegistrationWriter.class), beanFactory.getBeanProvider(AuditLog.class));
+        repository.save(new User("john", encoder.encode(BenchmarkApplication.PASSWORD),
+                LocalDate.of(1990, 1, 1), Role.USER));
+    }
+
+    @TearDown
+    public void tearDown() {
+        hashingExecutor.shutdown();
+    }
+
+    @Benchmark
+    public Optional<User> hit() throws Exception {
+        return service.authorize("john", BenchmarkApplication.PASSWORD);
+    }
+
+    @Benchmark
+    public Object wrongPassword() throws Exception {
+        try {
+            return service.authorize("john", "wrong!");
+        } catch (WrongPasswordException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object unknownLogin() throws Exception {
+        try {
+            return service.authorize("nobody", BenchmarkApplication.PASSWORD);
+        } catch (UserNotFoundException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.icl.auth.benchmark;
+
+import com.icl.auth.AuthorizationService;
+import com.icl.auth.repository.LoginExistenceFilter;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts the application for benchmarks with an own in-memory database and quiet logging
+ */
+final class BenchmarkApplication {
+    static final String PASSWORD = "secret!";
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * @param properties "name=value" pairs, which override defaults below and properties of application
+     *                   and its profiles
+     */
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        Map<String, String> all = new LinkedHashMap<>();
+        for (String property : Arrays.asList(
+                "spring.datasource.url=jdbc:h2:mem:benchmark-" + System.nanoTime() + ";MODE=PostgreSQL;DB_CLOSE_ON_EXIT=FALSE",
+                "spring.jpa.show-sql=false",
+                "spring.datasource.initialization-mode=never",
+                "server.port=0",
+                "logging.level.root=warn",
+                "auth.rate-limit.enabled=false",
+                "auth.audit.enabled=false")) {
+            put(all, property);
+        }
+        for (String property : properties) {
+            put(all, property);
+        }
+        String[] args = all.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(AuthorizationService.class)
+                .web(webApplicationType)
+                .run(args);
+    }
+
+    private static void put(Map<String, String> properties, String property) {
+        int separator = property.indexOf('=');
+        properties.put(property.substring(0, separator), property.substring(separator + 1));
+    }
+
+    /**
+     * Inserts users with logins "user0".."user{count - 1}" sharing the same password hash and rebuilds
+     * login filter, which does not see rows inserted past the repository
+     */
+    static void seedUsers(ConfigurableApplicationContext context, int count, String passwordHash) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Date dateOfBirth = Date.valueOf(LocalDate.of(1990, 1, 1));
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            batch.add(new Object[]{"user" + i, "user" + i, passwordHash, dateOfBirth, "USER"});
+            if (batch.size() == INSERT_BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate(
+                        "insert into \"user\" (login, login_normalized, password, date_of_birth, role, version) "
+                                + "values (?, ?, ?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+        context.getBeanProvider(LoginExistenceFilter.class).ifAvailable(LoginExistenceFilter::rebuild);
+    }
+}
@@ -0,0 +1,68 @@
+package com.icl.auth.benchmark;
+
+import com.icl.auth.metrics.AuthMetrics;
+import com.icl.auth.security.CredentialShapeValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CredentialShapeValidator#isPossible(String, String)} for a password it accepts and for rejected ones,
+ * to be compared with verification by {@link PasswordEncoderBenchmark}, which rejected attempts skip
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CredentialShapeBenchmark {
+    @Param({"valid", "no-punctuation", "too-long", "huge"})
+    public String password;
+
+    private CredentialShapeValidator validator;
+    private String value;
+
+    @Setup
+    public void setUp() {
+        validator = new CredentialShapeValidator(new AuthMetrics(new SimpleMeterRegistry()), false, Duration.ZERO,
+                1, 1);
+        switch (password) {
+            case "valid":
+                value = BenchmarkApplication.PASSWORD;
+                break;
+            case "no-punctuation":
+                value = "password123";
+                break;
+            case "too-long":
+                value = String.join("", Collections.nCopies(80, "w")) + "!";
+                break;
+            default:
+                value = String.join("", Collections.nCopies(1 << 20, "w")) + "!";
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        validator.shutdown();
+    }
+
+    @Benchmark
+    public boolean isPossible() {
+        return validator.isPossible("user1", value);
+    }
+}
@@ -0,0 +1,125 @@
+package com.icl.auth.benchmark;
+
+import com.icl.auth.exception.GlobalControllerExceptionHandler;
+import com.icl.auth.exception.WrongPasswordException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Failure path of login. {@link #legacyFailure()} and {@link #stacklessFailure()} compare formatted exceptions
+ * with stack trace, handled by {@link ResponseEntityExceptionHandler#handleExceptionInternal}, with stackless
+ * exceptions and preallocated response, thrown from the given stack depth as in a servlet container.
+ * {@link #unknownLoginRoundTrip()} is the whole POST /login for a login, which does not exist
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FailedLoginBenchmark {
+    @Param({"20", "120"})
+    public int stackDepth;
+
+    private final LegacyExceptionHandler legacyHandler = new LegacyExceptionHandler();
+    private final ExposedExceptionHandler handler = new ExposedExceptionHandler();
+    private final WebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest());
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> legacyFailure() {
+        try {
+            throwAt(stackDepth, true, "john");
+            throw new IllegalStateException();
+        } catch (WrongPasswordException e) {
+            return legacyHandler.handle(e, webRequest);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> stacklessFailure() {
+        try {
+            throwAt(stackDepth, false, "john");
+            throw new IllegalStateException();
+        } catch (WrongPasswordException e) {
+            return handler.handle();
+        }
+    }
+
+    @Benchmark
+    public int unknownLoginRoundTrip() throws Exception {
+        MvcResult result = mockMvc.perform(post("/login")
+                .param("login", "nobody")
+                .param("password", BenchmarkApplication.PASSWORD))
+                .andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result.getResponse().getStatus();
+    }
+
+    private static void throwAt(int depth, boolean legacy, String login) throws WrongPasswordException {
+        if (depth > 0) {
+            throwAt(depth - 1, legacy, login);
+        } else if (legacy) {
+            throw new WrongPasswordException(String.format("wrong password for login %s", login));
+        } else {
+            throw WrongPasswordException.stackless("wrong password");
+        }
+    }
+
+    /**
+     * Exception handler as it was before failure path was made cheap
+     */
+    private static class LegacyExceptionHandler extends ResponseEntityExceptionHandler {
+        ResponseEntity<Object> handle(Exception ex, WebRequest request) {
+            return handleExceptionInternal(ex, ex.getMessage(), new HttpHeaders(), HttpStatus.FORBIDDEN, request);
+        }
+    }
+
+    private static class ExposedExceptionHandler extends GlobalControllerExceptionHandler {
+        ResponseEntity<byte[]> handle() {
+            return handleAuthenticationFailure();
+        }
+    }
+}
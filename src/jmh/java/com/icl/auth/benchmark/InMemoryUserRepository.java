@@ -0,0 +1,98 @@
+package com.icl.auth.benchmark;
+
+import com.icl.auth.exception.UserNotFoundException;
+import com.icl.auth.model.User;
+import com.icl.auth.repository.UserRepository;
+import com.icl.auth.security.Role;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Map based {@link UserRepository}, isolates service benchmarks from database cost
+ */
+class InMemoryUserRepository implements UserRepository {
+    private final Map<String, User> usersByLogin = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return usersByLogin.values().stream().filter(u -> id.equals(u.getId())).findFirst();
+    }
+
+    @Override
+    public Optional<User> findByLogin(String login) {
+        return Optional.ofNullable(usersByLogin.get(User.normalizeLogin(login)));
+    }
+
+    @Override
+    public User save(User user) {
+        if (user.isNew()) {
+            user.setId(ids.incrementAndGet());
+        }
+        usersByLogin.put(User.normalizeLogin(user.getLogin()), user);
+        return user;
+    }
+
+    @Override
+    public List<User> insertAll(List<User> users) {
+        users.forEach(this::save);
+        return users;
+    }
+
+    @Override
+    public boolean updatePassword(Long id, String expectedPassword, String newPassword) {
+        Optional<User> user = findById(id).filter(u -> expectedPassword.equals(u.getPassword()));
+        user.ifPresent(u -> u.setPassword(newPassword));
+        return user.isPresent();
+    }
+
+    @Override
+    public boolean updateRole(Long id, Role role) {
+        Optional<User> user = findById(id);
+        user.ifPresent(u -> u.setRole(role));
+        return user.isPresent();
+    }
+
+    @Override
+    public void deleteById(Long id) throws UserNotFoundException {
+        if (!usersByLogin.values().removeIf(u -> id.equals(u.getId()))) {
+            throw new UserNotFoundException(id);
+        }
+    }
+
+    @Override
+    public List<User> findAll() {
+        return new ArrayList<>(usersByLogin.values());
+    }
+
+    @Override
+    public List<User> findPage(Long afterId, int limit) {
+        return streamAll(limit)
+                .filter(u -> afterId == null || u.getId() > afterId)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<User> streamAll(int fetchSize) {
+        return usersByLogin.values().stream().sorted(Comparator.comparing(User::getId));
+    }
+
+    @Override
+    public List<String> findAllLogins() {
+        return new ArrayList<>(usersByLogin.keySet());
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+}
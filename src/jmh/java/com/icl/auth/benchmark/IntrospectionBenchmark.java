@@ -0,0 +1,71 @@
+package com.icl.auth.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.icl.auth.controller.AuthApiController;
+import com.icl.auth.dto.IntrospectionRequest;
+import com.icl.auth.metrics.AuthMetrics;
+import com.icl.auth.security.InProcessTokenRevocationStore;
+import com.icl.auth.security.Role;
+import com.icl.auth.security.TokenService;
+import com.icl.auth.security.UserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * POST /api/auth/introspect without HTTP: request body is parsed, token is verified by
+ * {@link AuthApiController#introspect} and response is written by Jackson, as done by the message converters
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class IntrospectionBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private AuthApiController controller;
+    private byte[] validRequest;
+    private byte[] forgedRequest;
+
+    @Setup
+    public void setUp() throws Exception {
+        TokenService tokenService = new TokenService("benchmark-secret-benchmark-secret".getBytes(StandardCharsets.UTF_8),
+                Duration.ofHours(1), new InProcessTokenRevocationStore("benchmark"), Clock.systemUTC());
+        controller = new AuthApiController(null, null, tokenService, new AuthMetrics(new SimpleMeterRegistry()));
+        String token = tokenService.issue(new UserPrincipal(1L, "john", LocalDate.of(1990, 1, 1), Role.USER));
+        validRequest = objectMapper.writeValueAsBytes(new IntrospectionRequest(token));
+        forgedRequest = objectMapper.writeValueAsBytes(new IntrospectionRequest(token.substring(1)));
+    }
+
+    @Benchmark
+    public byte[] validToken() throws Exception {
+        return introspect(validRequest);
+    }
+
+    @Benchmark
+    public byte[] forgedToken() throws Exception {
+        return introspect(forgedRequest);
+    }
+
+    private byte[] introspect(byte[] request) throws Exception {
+        IntrospectionRequest introspection = objectMapper.readValue(request, IntrospectionRequest.class);
+        return objectMapper.writeValueAsBytes(controller.introspect(introspection));
+    }
+}
@@ -0,0 +1,91 @@
+package com.icl.auth.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Full POST /login round trip through {@link MockMvc}, including the async dispatch. With audit "true" every
+ * login is also appended to {@link com.icl.auth.audit.AuditLog} in a temporary directory, the difference
+ * of both runs is the overhead of the audit log on the request path
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginRoundTripBenchmark {
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private Path auditDirectory;
+
+    @Param({"false", "true"})
+    public boolean audit;
+
+    @Setup
+    public void setUp() throws IOException {
+        auditDirectory = Files.createTempDirectory("audit-benchmark");
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET,
+                "auth.audit.enabled=" + audit,
+                "auth.audit.directory=" + auditDirectory);
+        BenchmarkApplication.seedUsers(context, 1,
+                context.getBean(PasswordEncoder.class).encode(BenchmarkApplication.PASSWORD));
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(auditDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int successfulLogin() throws Exception {
+        return login(BenchmarkApplication.PASSWORD);
+    }
+
+    @Benchmark
+    public int failedLogin() throws Exception {
+        return login("wrong!");
+    }
+
+    private int login(String password) throws Exception {
+        MvcResult result = mockMvc.perform(post("/login")
+                .param("login", "user0")
+                .param("password", password))
+                .andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result.getResponse().getStatus();
+    }
+}
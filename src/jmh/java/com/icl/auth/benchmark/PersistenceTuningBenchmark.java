@@ -0,0 +1,82 @@
+package com.icl.auth.benchmark;
+
+import com.icl.auth.model.User;
+import com.icl.auth.repository.JpaUserRepository;
+import com.icl.auth.security.Role;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link JpaUserRepository#findByLogin(String)} and {@link JpaUserRepository#save(User)} with settings
+ * of application.properties ("default", SQL logged to stdout) and of the "prod" profile. H2 stands in
+ * for PostgreSQL, so its own statement cache is enabled in place of the server-side one of PostgreSQL driver
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceTuningBenchmark {
+    private static final int USER_COUNT = 10_000;
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private JpaUserRepository repository;
+
+    @Setup
+    public void setUp() {
+        String database = "jdbc:h2:mem:benchmark-" + System.nanoTime() + ";MODE=PostgreSQL;DB_CLOSE_ON_EXIT=FALSE";
+        if ("prod".equals(profile)) {
+            context = BenchmarkApplication.start(WebApplicationType.NONE,
+                    "spring.profiles.active=prod",
+                    "spring.datasource.url=" + database + ";QUERY_CACHE_SIZE=256",
+                    "spring.datasource.driver-class-name=org.h2.Driver",
+                    "spring.datasource.username=sa",
+                    "spring.jpa.hibernate.ddl-auto=create");
+        } else {
+            context = BenchmarkApplication.start(WebApplicationType.NONE,
+                    "spring.datasource.url=" + database,
+                    "spring.jpa.show-sql=true");
+        }
+        BenchmarkApplication.seedUsers(context, USER_COUNT, "hash");
+        repository = context.getBean(JpaUserRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> findByLogin() {
+        return repository.findByLogin("user" + ThreadLocalRandom.current().nextInt(USER_COUNT));
+    }
+
+    @Benchmark
+    public User save() {
+        return repository.save(new User("saved" + sequence.incrementAndGet(), "hash",
+                LocalDate.of(1990, 1, 1), Role.USER));
+    }
+}
@@ -0,0 +1,62 @@
+package com.icl.auth.benchmark;
+
+import com.icl.auth.model.User;
+import com.icl.auth.security.HttpSessionAuthenticationStore;
+import com.icl.auth.security.Role;
+import com.icl.auth.security.UserPrincipal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.util.SerializationUtils;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of keeping authenticated user in a replicated or persisted session, for "entity", which was stored
+ * by {@link HttpSessionAuthenticationStore} before, and "principal", which is stored now. Run with
+ * -prof gc: gc.alloc.rate.norm of {@link #serialize()} follows serialized size of the attribute and
+ * of {@link #deserialize()} follows heap size of the attribute restored on another node
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionAttributeBenchmark {
+    @Param({"entity", "principal"})
+    public String attribute;
+
+    private Serializable value;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() {
+        User user = new User("john", new BCryptPasswordEncoder(4).encode(BenchmarkApplication.PASSWORD),
+                LocalDate.of(1990, 1, 1), Role.USER);
+        user.setId(1L);
+        value = "entity".equals(attribute) ? user : UserPrincipal.from(user);
+        serialized = SerializationUtils.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return SerializationUtils.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return SerializationUtils.deserialize(serialized);
+    }
+}
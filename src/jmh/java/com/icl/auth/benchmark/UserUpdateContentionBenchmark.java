@@ -0,0 +1,113 @@
+package com.icl.auth.benchmark;
+
+import com.icl.auth.model.User;
+import com.icl.auth.repository.JpaUserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.OptimisticLockException;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Profile and password updates of a few hot users made concurrently, each update is retried until it is not
+ * based on a stale copy. "merge" reads user, modifies it and merges it in a transaction, which reads
+ * the row again before the update, as {@link JpaUserRepository#save(User)} did before users were versioned.
+ * "versioned" saves profile by a single version checked update and replaces password by a JPQL update
+ * without reading the user
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserUpdateContentionBenchmark {
+    private static final int USER_COUNT = 16;
+
+    @Param({"merge", "versioned"})
+    public String strategy;
+
+    private ConfigurableApplicationContext context;
+    private JpaUserRepository repository;
+    private EntityManager em;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE);
+        BenchmarkApplication.seedUsers(context, USER_COUNT, "hash");
+        repository = context.getBean(JpaUserRepository.class);
+        em = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public User updateProfile() {
+        long id = 1 + ThreadLocalRandom.current().nextInt(USER_COUNT);
+        LocalDate dateOfBirth = LocalDate.of(1950 + ThreadLocalRandom.current().nextInt(50), 1, 1);
+        while (true) {
+            User user = repository.findById(id).orElseThrow(IllegalStateException::new);
+            user.setDateOfBirth(dateOfBirth);
+            try {
+                return "merge".equals(strategy) ? merge(user) : repository.save(user);
+            } catch (ObjectOptimisticLockingFailureException | OptimisticLockException e) {
+                // read again and retry
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public boolean updatePassword() {
+        long id = 1 + ThreadLocalRandom.current().nextInt(USER_COUNT);
+        String password = "hash" + ThreadLocalRandom.current().nextInt();
+        while (true) {
+            User user = repository.findById(id).orElseThrow(IllegalStateException::new);
+            try {
+                if ("merge".equals(strategy)) {
+                    user.setPassword(password);
+                    merge(user);
+                    return true;
+                }
+                if (repository.updatePassword(id, user.getPassword(), password)) {
+                    return true;
+                }
+            } catch (ObjectOptimisticLockingFailureException | OptimisticLockException e) {
+                // read again and retry
+            }
+        }
+    }
+
+    private User merge(User user) {
+        return transactionTemplate.execute(status -> em.merge(user));
+    }
+}
@@ -0,0 +1,269 @@
+package com.icl.auth.loadtest;
+
+import com.icl.auth.controller.LoadTestSupport;
+import com.icl.auth.model.User;
+import com.icl.auth.repository.UserRepository;
+import com.icl.auth.security.Role;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URLEncoder;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mixed load against the application on a random port with its own in-memory database, run by
+ * "mvn -P loadtest verify". Seeds "loadtest.mixed.users" users with generated passwords, then each of
+ * "loadtest.mixed.clients" clients makes "loadtest.mixed.requests" requests, choosing operation by weights of
+ * "loadtest.mixed.mix". Clients wait for responses, so latencies do not include time requests would have waited
+ * for a saturated server.
+ * <p>
+ * Latency percentiles and throughput are logged, percentile distributions are written to
+ * "loadtest.mixed.output-dir" as .hgrm files. The run fails, when unexpected responses are received or
+ * limits of loadtest-baseline.properties are exceeded
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL",
+        "spring.jpa.show-sql=false",
+        "auth.rate-limit.enabled=false",
+        "auth.password.bcrypt-strength=${loadtest.mixed.bcrypt-strength:8}",
+        "auth.hashing.queue-capacity=100000",
+        "logging.level.root=warn",
+        "logging.level.com.icl.auth.loadtest=info"})
+public class MixedLoadIT extends LoadTestSupport {
+    private static final String SEEDED_PREFIX = "seeded";
+    private static final String REGISTERED_PREFIX = "registered";
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    public void mixedLoadShouldStayWithinBaseline() throws Exception {
+        int users = Integer.getInteger("loadtest.mixed.users", 1000);
+        int clients = Integer.getInteger("loadtest.mixed.clients", 50);
+        int requests = Integer.getInteger("loadtest.mixed.requests", 100);
+        long seed = Long.getLong("loadtest.mixed.seed", 42);
+        Map<Operation, Integer> mix = parseMix(System.getProperty("loadtest.mixed.mix",
+                "login.success=60,login.failure=20,registration=10,main-page=10"));
+
+        List<String> passwords = seedUsers(users, new CredentialGenerator(seed));
+
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(3));
+        }
+        AtomicInteger errors = new AtomicInteger();
+        Client[] workers = new Client[clients];
+        for (int client = 0; client < clients; client++) {
+            workers[client] = new Client(client, seed, passwords, mix, histograms, errors);
+        }
+        long elapsed = runClients(clients, requests, (client, number) -> workers[client].request(number),
+                30, TimeUnit.MINUTES);
+
+        List<String> violations = report(histograms, elapsed, errors.get(), clients * requests);
+        assertThat(violations).isEmpty();
+    }
+
+    private List<String> seedUsers(int users, CredentialGenerator generator) {
+        List<String> passwords = IntStream.range(0, users)
+                .mapToObj(i -> generator.password())
+                .collect(Collectors.toList());
+        List<String> hashes = passwords.parallelStream()
+                .map(passwordEncoder::encode)
+                .collect(Collectors.toList());
+        for (int from = 0; from < users; from += SEED_BATCH_SIZE) {
+            List<User> batch = new ArrayList<>(SEED_BATCH_SIZE);
+            for (int i = from; i < Math.min(users, from + SEED_BATCH_SIZE); i++) {
+                batch.add(new User(generator.login(SEEDED_PREFIX, i), hashes.get(i),
+                        LocalDate.of(2000, 1, 1), Role.USER));
+            }
+            userRepository.insertAll(batch);
+        }
+        return passwords;
+    }
+
+    private List<String> report(Map<Operation, Histogram> histograms, long elapsedNanos, int errors, int requests)
+            throws IOException {
+        Properties baseline = new Properties();
+        try (InputStream in = MixedLoadIT.class.getResourceAsStream("/loadtest-baseline.properties")) {
+            baseline.load(in);
+        }
+        File outputDir = new File(System.getProperty("loadtest.mixed.output-dir", "target/loadtest"));
+        outputDir.mkdirs();
+
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        double throughput = requests / seconds;
+        List<String> violations = new ArrayList<>();
+        log.info(String.format("requests=%d errors=%d elapsed=%.1fs throughput=%.1f/s", requests, errors, seconds,
+                throughput));
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            Operation operation = entry.getKey();
+            Histogram histogram = entry.getValue();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            double p99 = millis(histogram, 99.0);
+            log.info(String.format("%-14s count=%d p50=%.1fms p90=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms",
+                    operation.key, histogram.getTotalCount(), millis(histogram, 50.0), millis(histogram, 90.0), p99,
+                    millis(histogram, 99.9), histogram.getMaxValue() / 1000.0));
+            try (PrintStream out = new PrintStream(new File(outputDir, operation.key + ".hgrm"), "UTF-8")) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+
+            String limit = baseline.getProperty(operation.key + ".p99-ms");
+            if (limit != null && p99 > Double.parseDouble(limit)) {
+                violations.add(String.format("%s p99 %.1fms exceeds %sms", operation.key, p99, limit));
+            }
+        }
+
+        double minThroughput = Double.parseDouble(baseline.getProperty("throughput.min-per-second", "0"));
+        if (throughput < minThroughput) {
+            violations.add(String.format("throughput %.1f/s is below %.1f/s", throughput, minThroughput));
+        }
+        int maxErrors = Integer.parseInt(baseline.getProperty("errors.max", "0"));
+        if (errors > maxErrors) {
+            violations.add(String.format("%d unexpected responses exceed %d", errors, maxErrors));
+        }
+        return violations;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] keyAndWeight = entry.trim().split("=");
+            weights.put(Operation.of(keyAndWeight[0].trim()), Integer.parseInt(keyAndWeight[1].trim()));
+        }
+        return weights;
+    }
+
+    private enum Operation {
+        LOGIN_SUCCESS("login.success", HttpURLConnection.HTTP_OK),
+        LOGIN_FAILURE("login.failure", HttpURLConnection.HTTP_FORBIDDEN),
+        REGISTRATION("registration", HttpURLConnection.HTTP_OK),
+        MAIN_PAGE("main-page", HttpURLConnection.HTTP_OK);
+
+        private final String key;
+        private final int expectedStatus;
+
+        Operation(String key, int expectedStatus) {
+            this.key = key;
+            this.expectedStatus = expectedStatus;
+        }
+
+        static Operation of(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("unknown operation " + key);
+        }
+    }
+
+    private class Client {
+        private final int id;
+        private final Random random;
+        private final CredentialGenerator generator;
+        private final List<String> passwords;
+        private final Operation[] operations;
+        private final int[] cumulativeWeights;
+        private final Map<Operation, Histogram> histograms;
+        private final AtomicInteger errors;
+
+        Client(int id, long seed, List<String> passwords, Map<Operation, Integer> mix,
+               Map<Operation, Histogram> histograms, AtomicInteger errors) {
+            this.id = id;
+            this.random = new Random(seed + id);
+            this.generator = new CredentialGenerator(seed + id);
+            this.passwords = passwords;
+            this.operations = mix.keySet().toArray(new Operation[0]);
+            this.cumulativeWeights = new int[operations.length];
+            int total = 0;
+            for (int i = 0; i < operations.length; i++) {
+                total += mix.get(operations[i]);
+                cumulativeWeights[i] = total;
+            }
+            this.histograms = histograms;
+            this.errors = errors;
+        }
+
+        void request(int number) throws IOException {
+            Operation operation = choose();
+            String path;
+            String body;
+            switch (operation) {
+                case LOGIN_SUCCESS:
+                case LOGIN_FAILURE:
+                    int user = random.nextInt(passwords.size());
+                    String password = operation == Operation.LOGIN_SUCCESS ? passwords.get(user) : "wrong!";
+                    path = "/login";
+                    body = form("login", generator.login(SEEDED_PREFIX, user), "password", password);
+                    break;
+                case REGISTRATION:
+                    path = "/register";
+                    body = form("login", generator.login(REGISTERED_PREFIX + id + "-", number),
+                            "password", generator.password(), "dateOfBirth", "2000-01-01");
+                    break;
+                default:
+                    path = "/";
+                    body = null;
+            }
+
+            long started = System.nanoTime();
+            int status = send(url(path), body);
+            histograms.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started));
+            if (status != operation.expectedStatus) {
+                errors.incrementAndGet();
+            }
+        }
+
+        private Operation choose() {
+            int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (value < cumulativeWeights[i]) {
+                    return operations[i];
+                }
+            }
+            return operations[operations.length - 1];
+        }
+
+        private String form(String... namesAndValues) throws IOException {
+            StringBuilder form = new StringBuilder();
+            for (int i = 0; i < namesAndValues.length; i += 2) {
+                if (form.length() > 0) {
+                    form.append('&');
+                }
+                form.append(namesAndValues[i]).append('=').append(URLEncoder.encode(namesAndValues[i + 1], "UTF-8"));
+            }
+            return form.toString();
+        }
+    }
+}
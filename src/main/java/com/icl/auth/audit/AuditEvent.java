@@ -0,0 +1,31 @@
+package com.icl.auth.audit;
+
+import lombok.Value;
+
+/**
+ * Record of one authentication attempt or user write, as it is kept by {@link AuditLog}
+ */
+@Value
+public class AuditEvent {
+    /**
+     * Milliseconds since epoch, when the attempt was completed
+     */
+    long timestamp;
+    Type type;
+    /**
+     * One of outcomes of {@link com.icl.auth.metrics.AuthMetrics}
+     */
+    String outcome;
+    /**
+     * Login as it was given, null when it is unknown
+     */
+    String login;
+    /**
+     * Id of the user, null when the attempt failed before the user was known
+     */
+    Long userId;
+
+    public enum Type {
+        LOGIN, REGISTRATION, UPDATE
+    }
+}
@@ -0,0 +1,269 @@
+package com.icl.auth.audit;
+
+import com.icl.auth.concurrent.MpscRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only log of authentication attempts and user writes, when auth.audit.enabled is "true". Callers put
+ * events on a lock-free {@link MpscRingBuffer} and return at once, a single writer thread encodes them as
+ * NDJSON lines and appends them in batches to segment files of the audit directory. A segment is closed and
+ * the next one is started, when it would grow over segment-size, segments are never rewritten or removed.
+ * <p>
+ * Guarantees: events are written in the order they were appended. When the buffer is full, events are dropped
+ * and counted by "auth.audit.dropped", callers are never blocked. Written batches reach the operating system
+ * before the writer waits for more events, they are forced to disk when segment is closed, so events of the last
+ * moments before a crash of the machine may be lost. On shutdown queued events are written before the log stops
+ */
+@Component
+@ConditionalOnProperty(name = "auth.audit.enabled", havingValue = "true")
+public class AuditLog {
+    static final Pattern SEGMENT_NAME = Pattern.compile("audit-(\\d+)\\.ndjson");
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+    private static final int MAX_LOGIN_LENGTH = 255;
+    private static final int MAX_BATCH = 1024;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Path directory;
+    private final MpscRingBuffer<AuditEvent> buffer;
+    private final long segmentSize;
+    private final Thread writer;
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Counter failureCounter;
+    private volatile boolean running = true;
+
+    // state of the writer thread
+    private final ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder(256);
+    private FileChannel segment;
+    private long segmentBytes;
+    private long nextSegment;
+    private int pendingEvents;
+
+    /**
+     * @param directory      absolute path of directory of segment files, created when it does not exist
+     * @param bufferCapacity maximum number of events waiting to be written, rounded up to a power of two
+     * @param segmentSize    size, after which the next segment is started
+     * @throws IllegalArgumentException, when directory is not set or is not absolute
+     * @throws IOException, when the directory cannot be created or listed
+     */
+    @Autowired
+    public AuditLog(@Value("${auth.audit.directory:}") String directory,
+                    @Value("${auth.audit.buffer-capacity:65536}") int bufferCapacity,
+                    @Value("${auth.audit.segment-size:64MB}") DataSize segmentSize,
+                    MeterRegistry meterRegistry) throws IOException {
+        if (directory.isEmpty() || !Paths.get(directory).isAbsolute()) {
+            throw new IllegalArgumentException("auth.audit.directory must be an absolute path, was '" + directory
+                    + "'");
+        }
+        this.directory = Files.createDirectories(Paths.get(directory));
+        this.nextSegment = lastSegment(this.directory) + 1;
+        this.buffer = new MpscRingBuffer<>(bufferCapacity);
+        this.segmentSize = segmentSize.toBytes();
+        this.droppedCounter = Counter.builder("auth.audit.dropped")
+                .description("Audit events dropped because the buffer was full or could not be written")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("auth.audit.written")
+                .description("Audit events written to segment files")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("auth.audit.write.failures")
+                .description("Failed writes of audit batches")
+                .register(meterRegistry);
+        Gauge.builder("auth.audit.buffer.size", buffer, MpscRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        this.writer = new Thread(this::run, "audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues event to be written, never blocks
+     *
+     * @param type    kind of the attempt
+     * @param outcome one of outcomes of {@link com.icl.auth.metrics.AuthMetrics}
+     * @param login   login as it was given, may be null
+     * @param userId  id of the user, may be null
+     * @return false, when event is dropped, because the buffer is full or the log is stopped
+     */
+    public boolean append(AuditEvent.Type type, String outcome, String login, Long userId) {
+        if (!running || !buffer.offer(new AuditEvent(System.currentTimeMillis(), type, outcome, login, userId))) {
+            droppedCounter.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Stops accepting events and waits for queued ones to be written
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private void run() {
+        while (running || !buffer.isEmpty()) {
+            try {
+                if (buffer.drain(this::encode, MAX_BATCH) == 0) {
+                    flush();
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+            } catch (RuntimeException e) {
+                log.error("audit event could not be encoded", e);
+            }
+        }
+        flush();
+        closeSegment();
+    }
+
+    private void encode(AuditEvent event) {
+        line.setLength(0);
+        appendLine(line, event);
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+
+        if (out.remaining() < bytes.length) {
+            flush();
+        }
+        long segmentLength = segmentBytes + out.position();
+        if (segmentLength > 0 && segmentLength + bytes.length > segmentSize) {
+            flush();
+            closeSegment();
+        }
+        out.put(bytes);
+        pendingEvents++;
+    }
+
+    /**
+     * Writes encoded events to the current segment, opening a new one, when there is none. When the write fails,
+     * events are dropped and the segment is closed, so the next batch is written to a new one
+     */
+    private void flush() {
+        if (pendingEvents == 0) {
+            return;
+        }
+        try {
+            if (segment == null) {
+                openSegment();
+            }
+            out.flip();
+            while (out.hasRemaining()) {
+                segmentBytes += segment.write(out);
+            }
+            writtenCounter.increment(pendingEvents);
+        } catch (IOException e) {
+            log.error("{} audit events could not be written", pendingEvents, e);
+            failureCounter.increment();
+            droppedCounter.increment(pendingEvents);
+            closeSegment();
+        } finally {
+            out.clear();
+            pendingEvents = 0;
+        }
+    }
+
+    private void openSegment() throws IOException {
+        Path path = directory.resolve(segmentName(nextSegment++));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        segmentBytes = 0;
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.force(false);
+            segment.close();
+        } catch (IOException e) {
+            log.warn("audit segment could not be closed", e);
+        } finally {
+            segment = null;
+            segmentBytes = 0;
+        }
+    }
+
+    static String segmentName(long index) {
+        return String.format("audit-%010d.ndjson", index);
+    }
+
+    private static long lastSegment(Path directory) throws IOException {
+        long last = 0;
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "audit-*.ndjson")) {
+            for (Path segment : segments) {
+                Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+                if (matcher.matches()) {
+                    last = Math.max(last, Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Appends event as a JSON object followed by a line break
+     */
+    static void appendLine(StringBuilder line, AuditEvent event) {
+        line.append("{\"ts\":\"").append(Instant.ofEpochMilli(event.getTimestamp()))
+                .append("\",\"type\":\"").append(event.getType().name().toLowerCase(Locale.ROOT))
+                .append("\",\"outcome\":\"").append(event.getOutcome()).append('"');
+        if (event.getLogin() != null) {
+            line.append(",\"login\":");
+            appendJsonString(line, event.getLogin());
+        }
+        if (event.getUserId() != null) {
+            line.append(",\"userId\":").append(event.getUserId());
+        }
+        line.append("}\n");
+    }
+
+    private static void appendJsonString(StringBuilder line, String value) {
+        line.append('"');
+        int length = Math.min(value.length(), MAX_LOGIN_LENGTH);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+}
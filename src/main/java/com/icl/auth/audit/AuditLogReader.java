@@ -0,0 +1,131 @@
+package com.icl.auth.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads segment files written by {@link AuditLog}, oldest first. Can be run from the command line:
+ * <pre>
+ * java -cp auth.jar -Dloader.main=com.icl.auth.audit.AuditLogReader \
+ *     org.springframework.boot.loader.PropertiesLauncher &lt;directory&gt; [--login=..] [--type=..] [--outcome=..] [--since=..]
+ * </pre>
+ * which prints matching events as NDJSON. A line, which cannot be parsed, e.g. the last line of a segment
+ * written at the moment of a crash, is skipped
+ */
+public final class AuditLogReader {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private AuditLogReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: AuditLogReader <directory> [--login=login] [--type=login|registration|update]"
+                    + " [--outcome=outcome] [--since=2020-01-01T00:00:00Z]");
+            System.exit(1);
+        }
+        Predicate<AuditEvent> filter = event -> true;
+        for (int i = 1; i < args.length; i++) {
+            String[] nameAndValue = args[i].replaceFirst("^--", "").split("=", 2);
+            String value = nameAndValue.length > 1 ? nameAndValue[1] : "";
+            switch (nameAndValue[0]) {
+                case "login":
+                    filter = filter.and(event -> value.equals(event.getLogin()));
+                    break;
+                case "type":
+                    AuditEvent.Type type = AuditEvent.Type.valueOf(value.toUpperCase(Locale.ROOT));
+                    filter = filter.and(event -> event.getType() == type);
+                    break;
+                case "outcome":
+                    filter = filter.and(event -> value.equals(event.getOutcome()));
+                    break;
+                case "since":
+                    long since = Instant.parse(value).toEpochMilli();
+                    filter = filter.and(event -> event.getTimestamp() >= since);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        try (Stream<AuditEvent> events = read(Paths.get(args[0]))) {
+            StringBuilder line = new StringBuilder();
+            events.filter(filter).forEach(event -> {
+                line.setLength(0);
+                AuditLog.appendLine(line, event);
+                System.out.print(line);
+            });
+        }
+    }
+
+    /**
+     * @param directory directory of segment files
+     * @return events of all segments in the order they were written, the stream has to be closed
+     * @throws IOException, when the directory cannot be listed
+     */
+    public static Stream<AuditEvent> read(Path directory) throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files
+                    .filter(file -> AuditLog.SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+                    .collect(Collectors.toList());
+        }
+        List<BufferedReader> readers = new ArrayList<>(segments.size());
+        return segments.stream()
+                .flatMap(segment -> {
+                    BufferedReader reader = open(segment);
+                    readers.add(reader);
+                    return reader.lines();
+                })
+                .map(AuditLogReader::parse)
+                .filter(event -> event != null)
+                .onClose(() -> readers.forEach(AuditLogReader::closeQuietly));
+    }
+
+    static AuditEvent parse(String line) {
+        try {
+            JsonNode node = MAPPER.readTree(line);
+            JsonNode login = node.get("login");
+            JsonNode userId = node.get("userId");
+            return new AuditEvent(Instant.parse(node.get("ts").asText()).toEpochMilli(),
+                    AuditEvent.Type.valueOf(node.get("type").asText().toUpperCase(Locale.ROOT)),
+                    node.get("outcome").asText(),
+                    login == null ? null : login.asText(),
+                    userId == null ? null : userId.asLong());
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static BufferedReader open(Path segment) {
+        try {
+            return Files.newBufferedReader(segment, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void closeQuietly(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+            // nothing to do, the segment was read
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.icl.auth.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed thread pool with a bounded queue, which rejects tasks instead of queueing them without limit.
+ * Publishes "{metricPrefix}.wait", ".rejected", ".queue.size" and ".active" meters
+ */
+public abstract class BoundedExecutor {
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    protected BoundedExecutor(int threads, int queueCapacity, String threadNamePrefix, String metricPrefix,
+                              MeterRegistry meterRegistry) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory(threadNamePrefix),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.waitTimer = Timer.builder(metricPrefix + ".wait")
+                .description("Time a task spends in the queue")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(metricPrefix + ".rejected")
+                .description("Tasks rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".queue.size", executor, e -> e.getQueue().size())
+                .description("Tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Tasks being executed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs task on the pool. Exceptions thrown by the task complete returned future exceptionally
+     * as they are, without wrapping.
+     *
+     * @param task work to be done
+     * @return future, completed by one of the pool threads
+     * @throws RuntimeException created by {@link #rejected()}, when the queue of the pool is full
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    result.complete(task.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw rejected();
+        }
+        return result;
+    }
+
+    /**
+     * @return exception to be thrown to submitter, when the queue is full
+     */
+    protected abstract RuntimeException rejected();
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+        private final String prefix;
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
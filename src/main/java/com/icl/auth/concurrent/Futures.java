@@ -0,0 +1,62 @@
+package com.icl.auth.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Composition of {@link CompletableFuture}s, which passes failures on as they are. Dependent stages of
+ * {@link CompletableFuture} wrap every failure into a new {@link java.util.concurrent.CompletionException}
+ * with stack trace, which is what failed logins should not pay for
+ */
+public final class Futures {
+    private Futures() {
+    }
+
+    /**
+     * Same as {@link CompletableFuture#thenApply(Function)}, but without wrapping of failures
+     */
+    public static <T, R> CompletableFuture<R> map(CompletableFuture<T> source, Function<? super T, ? extends R> fn) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        source.handle((value, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+                return null;
+            }
+            try {
+                result.complete(fn.apply(value));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+            return null;
+        });
+        return result;
+    }
+
+    /**
+     * Same as {@link CompletableFuture#thenCompose(Function)}, but without wrapping of failures
+     */
+    public static <T, R> CompletableFuture<R> compose(CompletableFuture<T> source,
+                                                      Function<? super T, ? extends CompletableFuture<R>> fn) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        source.handle((value, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+                return null;
+            }
+            try {
+                fn.apply(value).handle((composed, composedFailure) -> {
+                    if (composedFailure != null) {
+                        result.completeExceptionally(composedFailure);
+                    } else {
+                        result.complete(composed);
+                    }
+                    return null;
+                });
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+            return null;
+        });
+        return result;
+    }
+}
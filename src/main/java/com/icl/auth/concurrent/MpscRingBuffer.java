@@ -0,0 +1,98 @@
+package com.icl.auth.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Producers claim a slot by CAS on the tail
+ * sequence and publish element into it, the consumer takes elements in the order slots were claimed. Producers
+ * never wait: when buffer is full, {@link #offer(Object)} returns false at once
+ * <p>
+ * {@link #poll()} and {@link #drain(Consumer, int)} must be called by one thread only
+ *
+ * @param <E> type of elements, null is not allowed
+ */
+public final class MpscRingBuffer<E> {
+    private final AtomicReferenceArray<E> slots;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity maximum number of elements, rounded up to a power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30, but is " + capacity);
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    /**
+     * @param element element to add
+     * @return false, when buffer is full and element is not added
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed - head.get() >= capacity) {
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+        slots.lazySet((int) claimed & mask, element);
+        return true;
+    }
+
+    /**
+     * @return next element, or null, when buffer is empty or next producer has not published its element yet
+     */
+    public E poll() {
+        long current = head.get();
+        int index = (int) current & mask;
+        E element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        head.lazySet(current + 1);
+        return element;
+    }
+
+    /**
+     * @param consumer receives taken elements
+     * @param limit    maximum number of elements to take
+     * @return number of elements taken
+     */
+    public int drain(Consumer<? super E> consumer, int limit) {
+        int taken = 0;
+        E element;
+        while (taken < limit && (element = poll()) != null) {
+            consumer.accept(element);
+            taken++;
+        }
+        return taken;
+    }
+
+    /**
+     * @return number of claimed slots, which are not taken yet
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,59 @@
+package com.icl.auth.config;
+
+import com.icl.auth.repository.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces auto-configured data source with {@link ReplicaRoutingDataSource}, when auth.replica.enabled is set.
+ * Primary is configured by spring.datasource.* properties, replicas share its pool settings
+ * and differ by URL and connection timeout only. A replica, which is down, does not stop startup
+ */
+@Configuration
+@ConditionalOnProperty(name = "auth.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+    /**
+     * Data source used by JPA and JDBC, connection is taken from primary or replica on first statement,
+     * when read-only flag of transaction is already known
+     */
+    @Bean
+    @Primary
+    public ReplicaRoutingDataSource dataSource(
+            DataSourceProperties properties, Environment environment,
+            @Value("${auth.replica.urls}") List<String> replicaUrls,
+            @Value("${auth.replica.validation-timeout-seconds:1}") int validationTimeoutSeconds,
+            @Value("${auth.replica.connection-timeout:250ms}") Duration replicaConnectionTimeout) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+
+        List<DataSource> replicas = new ArrayList<>(replicaUrls.size());
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            config.setJdbcUrl(replicaUrls.get(i));
+            config.setPoolName("replica-" + i);
+            config.setReadOnly(true);
+            config.setConnectionTimeout(replicaConnectionTimeout.toMillis());
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, validationTimeoutSeconds);
+    }
+}
@@ -0,0 +1,69 @@
+package com.icl.auth.config;
+
+import com.icl.auth.invalidation.InvalidationBus;
+import com.icl.auth.invalidation.UserChangeEvent;
+import com.icl.auth.repository.CachingUserRepository;
+import com.icl.auth.repository.JpaUserRepository;
+import com.icl.auth.repository.LoginExistenceFilter;
+import com.icl.auth.repository.LoginFilteringUserRepository;
+import com.icl.auth.repository.MeteredUserRepository;
+import com.icl.auth.repository.ReadYourWritesUserRepository;
+import com.icl.auth.repository.ReplicaRoutingDataSource;
+import com.icl.auth.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
+
+@Configuration
+@EnableScheduling
+public class RepositoryConfig {
+    private static final long RECENT_WRITES_MAX_SIZE = 100_000;
+
+    /**
+     * Wraps {@link JpaUserRepository} into decorators enabled by configuration. {@link MeteredUserRepository}
+     * is the innermost one, so it measures database calls only, not cache or filter hits. Cache and login filter
+     * are subscribed to {@link InvalidationBus}, so they see users written by other nodes
+     */
+    @Bean
+    @Primary
+    public UserRepository userRepository(JpaUserRepository jpaUserRepository,
+                                         ObjectProvider<LoginExistenceFilter> loginExistenceFilter,
+                                         ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource,
+                                         @Value("${auth.replica.read-your-writes-window:5s}") Duration readYourWritesWindow,
+                                         @Value("${auth.user-cache.enabled:true}") boolean userCacheEnabled,
+                                         @Value("${auth.user-cache.max-size:10000}") long userCacheSize,
+                                         @Value("${auth.user-cache.ttl:5m}") Duration userCacheTtl,
+                                         InvalidationBus invalidationBus,
+                                         MeterRegistry meterRegistry) {
+        UserRepository repository = new MeteredUserRepository(jpaUserRepository, meterRegistry);
+        if (replicaRoutingDataSource.getIfAvailable() != null) {
+            ReadYourWritesUserRepository readYourWritesRepository = new ReadYourWritesUserRepository(repository,
+                    readYourWritesWindow, RECENT_WRITES_MAX_SIZE);
+            invalidationBus.subscribe(event -> readYourWritesRepository.recordWrite(event.getUserId(),
+                    event.getLogin()));
+            repository = readYourWritesRepository;
+        }
+        LoginExistenceFilter filter = loginExistenceFilter.getIfAvailable();
+        if (filter != null) {
+            repository = new LoginFilteringUserRepository(repository, filter);
+            invalidationBus.subscribe(event -> {
+                if (event.getType() != UserChangeEvent.Type.DELETED && event.getLogin() != null) {
+                    filter.recordPresent(event.getLogin());
+                }
+            });
+        }
+        if (userCacheEnabled) {
+            CachingUserRepository cachingRepository = new CachingUserRepository(repository, userCacheSize,
+                    userCacheTtl, meterRegistry);
+            invalidationBus.subscribe(event -> cachingRepository.invalidate(event.getUserId(), event.getLogin()));
+            repository = cachingRepository;
+        }
+        return repository;
+    }
+}
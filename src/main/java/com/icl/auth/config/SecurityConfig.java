@@ -1,14 +1,42 @@
 package com.icl.auth.config;
 
+import com.icl.auth.security.BCryptStrengthCalibrator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.Collections;
+
 @Configuration
 public class SecurityConfig {
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+    private static final String BCRYPT = "bcrypt";
+
+    /**
+     * Encodes new passwords as {bcrypt} prefixed hashes with strength either configured or calibrated on startup
+     * to target verification time. Legacy hashes without prefix are still accepted, and
+     * {@link PasswordEncoder#upgradeEncoding(String)} reports them, as well as hashes of lower strength,
+     * as ones to be re-hashed
+     */
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.bcrypt-strength:0}") int strength,
+                                           @Value("${auth.password.target-verification-time:250ms}") Duration target,
+                                           @Value("${auth.password.min-bcrypt-strength:10}") int minStrength,
+                                           @Value("${auth.password.max-bcrypt-strength:14}") int maxStrength) {
+        if (strength <= 0) {
+            strength = BCryptStrengthCalibrator.calibrate(target, minStrength, maxStrength);
+            log.info("calibrated bcrypt strength {} for target verification time {} ms", strength, target.toMillis());
+        }
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT,
+                Collections.singletonMap(BCRYPT, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 }
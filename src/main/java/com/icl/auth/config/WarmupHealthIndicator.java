@@ -0,0 +1,56 @@
+package com.icl.auth.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * With lazy initialization beans are created by the first request, which needs them. Once the application
+ * is started, this indicator creates remaining singletons on a background thread, so the lazy
+ * EntityManagerFactory, password encoder calibration and login filter are ready before traffic arrives.
+ * It is OUT_OF_SERVICE until then and is included into readiness group by "fast-start" profile
+ */
+@Component
+@ConditionalOnProperty(name = "spring.main.lazy-initialization", havingValue = "true")
+public class WarmupHealthIndicator implements HealthIndicator, ApplicationListener<ApplicationReadyEvent> {
+    private static final Logger log = LoggerFactory.getLogger(WarmupHealthIndicator.class);
+
+    private volatile Health health = Health.outOfService().build();
+
+    @Override
+    public Health health() {
+        return health;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ConfigurableListableBeanFactory beanFactory = event.getApplicationContext().getBeanFactory();
+        Thread warmup = new Thread(() -> warmUp(beanFactory), "warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+    }
+
+    private void warmUp(ConfigurableListableBeanFactory beanFactory) {
+        long started = System.nanoTime();
+        try {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (definition.isSingleton() && !definition.isAbstract()) {
+                    beanFactory.getBean(name);
+                }
+            }
+            health = Health.up().build();
+            log.info("lazy beans are created in {} ms", (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            health = Health.down(e).build();
+            log.error("lazy beans can not be created", e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.icl.auth.config;
+
+import com.icl.auth.security.AdminAccessInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final AdminAccessInterceptor adminAccessInterceptor;
+
+    @Autowired
+    public WebConfig(AdminAccessInterceptor adminAccessInterceptor) {
+        this.adminAccessInterceptor = adminAccessInterceptor;
+    }
+
+    /**
+     * User administration, export and import are available to administrators only
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(adminAccessInterceptor).addPathPatterns("/admin/**");
+    }
+}
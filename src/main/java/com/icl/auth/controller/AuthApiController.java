@@ -0,0 +1,110 @@
+package com.icl.auth.controller;
+
+import com.icl.auth.concurrent.Futures;
+import com.icl.auth.dto.IntrospectionRequest;
+import com.icl.auth.dto.IntrospectionResponse;
+import com.icl.auth.dto.LoginRequest;
+import com.icl.auth.dto.RegistrationRequest;
+import com.icl.auth.dto.TokenResponse;
+import com.icl.auth.dto.UserResponse;
+import com.icl.auth.exception.LoginAlreadyTakenException;
+import com.icl.auth.exception.RateLimitExceededException;
+import com.icl.auth.exception.UserNotFoundException;
+import com.icl.auth.exception.WrongPasswordException;
+import com.icl.auth.metrics.AuthMetrics;
+import com.icl.auth.model.User;
+import com.icl.auth.security.TokenService;
+import com.icl.auth.security.UserPrincipal;
+import com.icl.auth.service.LoginService;
+import com.icl.auth.service.UserAuthorizationService;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.ConstraintViolationException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * JSON API for other services: login for a {@link TokenService signed token}, token introspection
+ * and registration. Failures are reported by the same handlers as of {@link AuthController}
+ */
+@RestController
+@RequestMapping(path = "/api/auth")
+public class AuthApiController {
+    private static final IntrospectionResponse INACTIVE = IntrospectionResponse.inactive();
+
+    private UserAuthorizationService userAuthorizationService;
+    private LoginService loginService;
+    private TokenService tokenService;
+    private AuthMetrics authMetrics;
+
+    @Autowired
+    public AuthApiController(UserAuthorizationService userAuthorizationService,
+                             LoginService loginService,
+                             TokenService tokenService,
+                             AuthMetrics authMetrics) {
+        this.userAuthorizationService = userAuthorizationService;
+        this.loginService = loginService;
+        this.tokenService = tokenService;
+        this.authMetrics = authMetrics;
+    }
+
+    /**
+     * Authenticates user asynchronously by {@link LoginService} and issues token for it
+     * @param login login and password
+     * @param request current request, which carries address of client
+     * @return future with token, completed exceptionally with {@link UserNotFoundException} or
+     * {@link WrongPasswordException}
+     * @throws RateLimitExceededException, when too many attempts are made for login or from client address
+     */
+    @PostMapping(path = "/login")
+    public CompletableFuture<TokenResponse> login(@RequestBody LoginRequest login, HttpServletRequest request) {
+        CompletableFuture<Optional<User>> authorized =
+                loginService.loginAsync(login.getLogin(), login.getPassword(), request.getRemoteAddr());
+        return Futures.map(authorized, user -> new TokenResponse(tokenService.issue(UserPrincipal.from(user.get())),
+                TokenResponse.BEARER, tokenService.getTimeToLive().getSeconds()));
+    }
+
+    /**
+     * Checks token by its signature, expiry and revocation list, no database lookup is made
+     * @param introspection token to be checked
+     * @return user of token, or inactive response, when token is not valid
+     */
+    @PostMapping(path = "/introspect")
+    public IntrospectionResponse introspect(@RequestBody IntrospectionRequest introspection) {
+        return tokenService.verify(introspection.getToken())
+                .map(IntrospectionResponse::active)
+                .orElse(INACTIVE);
+    }
+
+    /**
+     * Registers new user, time and outcome are recorded by {@link AuthMetrics}
+     * @param registration login, raw password and date of birth
+     * @return future with created user, completed exceptionally with {@link LoginAlreadyTakenException},
+     * when login is taken
+     * @throws ConstraintViolationException, when user is not valid
+     */
+    @PostMapping(path = "/register")
+    public CompletableFuture<ResponseEntity<UserResponse>> register(@RequestBody RegistrationRequest registration) {
+        Timer.Sample sample = authMetrics.start();
+        CompletableFuture<User> saved;
+        try {
+            saved = userAuthorizationService.saveAsync(registration.toUser());
+        } catch (RuntimeException e) {
+            authMetrics.recordRegistration(sample, e);
+            throw e;
+        }
+        saved.handle((user, e) -> {
+            authMetrics.recordRegistration(sample, e);
+            return null;
+        });
+        return Futures.map(saved, user -> ResponseEntity.status(HttpStatus.CREATED).body(UserResponse.from(user)));
+    }
+}
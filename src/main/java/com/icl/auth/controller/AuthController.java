@@ -1,9 +1,16 @@
 package com.icl.auth.controller;
 
+import com.icl.auth.concurrent.Futures;
+import com.icl.auth.exception.RateLimitExceededException;
 import com.icl.auth.exception.UserNotFoundException;
 import com.icl.auth.exception.WrongPasswordException;
+import com.icl.auth.metrics.AuthMetrics;
 import com.icl.auth.model.User;
+import com.icl.auth.security.AuthenticationStore;
+import com.icl.auth.security.UserPrincipal;
+import com.icl.auth.service.LoginService;
 import com.icl.auth.service.UserAuthorizationService;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
@@ -12,29 +19,40 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
-import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class AuthController {
     private UserAuthorizationService userAuthorizationService;
+    private LoginService loginService;
+    private AuthenticationStore authenticationStore;
+    private AuthMetrics authMetrics;
 
     @Autowired
-    public AuthController(UserAuthorizationService userAuthorizationService) {
+    public AuthController(UserAuthorizationService userAuthorizationService,
+                          LoginService loginService,
+                          AuthenticationStore authenticationStore,
+                          AuthMetrics authMetrics) {
         this.userAuthorizationService = userAuthorizationService;
+        this.loginService = loginService;
+        this.authenticationStore = authenticationStore;
+        this.authMetrics = authMetrics;
     }
 
     /**
-     * Method checks if session contains {@link User} object, which is logged in.
-     * @param session HttpSession, which holds user logged in.
-     * @param model holds {@link User} object from session.
+     * Method checks if {@link AuthenticationStore} holds user, which is logged in.
+     * @param request current request, which carries session or token of user logged in.
+     * @param model holds {@link UserPrincipal} of user logged in.
      * @return main page depending on whether user logged in or not.
      */
     @GetMapping(path = "/")
-    public String mainPage(HttpSession session, Model model) {
-        User userFromSession = (User) session.getAttribute("user");
-        if (userFromSession != null) {
-            model.addAttribute("user", userFromSession);
+    public String mainPage(HttpServletRequest request, Model model) {
+        Optional<UserPrincipal> user = authenticationStore.load(request);
+        if (user.isPresent()) {
+            model.addAttribute("user", user.get());
             return "securedPage";
         } else {
             return "login";
@@ -50,48 +68,66 @@ public class AuthController {
     }
 
     /**
-     * Creates new {@link User} object and saves it into database
+     * Creates new {@link User} object and saves it into database, time and outcome are recorded by {@link AuthMetrics}.
+     * In "async" execution mode request thread is released while user is saved
      * @param user to be saved into database
-     * @return name of the view, which should be rendered
+     * @return future with name of the view, which should be rendered
      */
     @PostMapping(path = "/register")
-    public String registerNewUser(User user, Model model) {
-        userAuthorizationService.save(user);
-        model.addAttribute("login", user.getLogin());
-        return "login";
+    public CompletableFuture<String> registerNewUser(User user, Model model) {
+        Timer.Sample sample = authMetrics.start();
+        CompletableFuture<User> saved;
+        try {
+            saved = userAuthorizationService.saveAsync(user);
+        } catch (RuntimeException e) {
+            authMetrics.recordRegistration(sample, e);
+            throw e;
+        }
+        saved.handle((savedUser, e) -> {
+            authMetrics.recordRegistration(sample, e);
+            return null;
+        });
+        return Futures.map(saved, savedUser -> {
+            model.addAttribute("login", user.getLogin());
+            return "login";
+        });
     }
 
     /**
-     * Processes user authentication
+     * Processes user authentication asynchronously by {@link LoginService}, request thread is released while
+     * password hash is verified
      * @param login - user's login
      * @param password - user's password
      * @param model {@link Model} - takes user as attribute and transfers it to the view
-     * @param session - {@link HttpSession} object, needed to hold authenticated user
-     * @return name of the view to be rendered
-     * @throws UserNotFoundException, when user with that login not found
-     * @throws WrongPasswordException, when wrong password is given
+     * @param request - current request, {@link AuthenticationStore} keeps authenticated user in its session
+     * @param response - current response, {@link AuthenticationStore} may send token to the client with it
+     * @return future with name of the view to be rendered, completed exceptionally with
+     * {@link UserNotFoundException}, when user with that login not found or
+     * {@link WrongPasswordException}, when wrong password is given
+     * @throws RateLimitExceededException, when too many attempts are made for login or from client address
      */
     @PostMapping(path = "/login")
-    public String login(String login, String password, Model model, HttpSession session)
-            throws UserNotFoundException, WrongPasswordException {
-        Optional<User> user = userAuthorizationService.authorize(login, password);
-        if (user.isPresent()) {
-            model.addAttribute("user", user.get());
-            session.setAttribute("user", user.get());
-            return "securedPage";
-        }
+    public CompletableFuture<String> login(String login, String password, Model model,
+                                           HttpServletRequest request, HttpServletResponse response) {
+        return Futures.map(loginService.loginAsync(login, password, request.getRemoteAddr()), user -> {
+            if (user.isPresent()) {
+                model.addAttribute("user", UserPrincipal.from(user.get()));
+                authenticationStore.store(user.get(), request, response);
+                return "securedPage";
+            }
 
-        return "login";
+            return "login";
+        });
     }
 
     /**
-     * Deletes user from {@link HttpSession} session
+     * Deletes user from {@link AuthenticationStore}
      * @return login view name
      */
     @GetMapping(path = "/logout")
     @ResponseStatus(code = HttpStatus.OK)
-    public String logout(HttpSession session) {
-        session.removeAttribute("user");
+    public String logout(HttpServletRequest request, HttpServletResponse response) {
+        authenticationStore.clear(request, response);
         return "login";
     }
 }
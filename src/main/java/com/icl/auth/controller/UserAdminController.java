@@ -0,0 +1,78 @@
+package com.icl.auth.controller;
+
+import com.icl.auth.dto.ImportReport;
+import com.icl.auth.dto.UserPage;
+import com.icl.auth.service.UserExportService;
+import com.icl.auth.service.UserImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping(path = "/admin/users")
+public class UserAdminController {
+    static final String TEXT_CSV = "text/csv";
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private UserImportService userImportService;
+    private UserExportService userExportService;
+
+    @Autowired
+    public UserAdminController(UserImportService userImportService, UserExportService userExportService) {
+        this.userImportService = userImportService;
+        this.userExportService = userExportService;
+    }
+
+    /**
+     * Returns page of users ordered by id
+     * @param after cursor, returned as nextAfter with previous page, absent for the first page
+     * @param limit page size
+     * @return users and cursor for the next page
+     */
+    @GetMapping
+    public UserPage findPage(@RequestParam(required = false) Long after,
+                             @RequestParam(defaultValue = "100") int limit) {
+        return userExportService.findPage(after, limit);
+    }
+
+    /**
+     * Streams all users as newline delimited JSON without loading them into memory
+     * @return response body written asynchronously, after request thread is released
+     */
+    @GetMapping(path = "/export", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = userExportService::exportNdjson;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON))
+                .body(body);
+    }
+
+    /**
+     * Imports users from CSV request body, which is streamed, not buffered
+     * @param body request body with lines of login, password and dateOfBirth
+     * @return report with numbers of imported and failed rows
+     */
+    @PostMapping(path = "/import", consumes = TEXT_CSV)
+    public ImportReport importCsv(InputStream body) throws IOException {
+        return userImportService.importCsv(body);
+    }
+
+    /**
+     * Imports users from JSON array or newline delimited JSON request body, which is streamed, not buffered
+     * @param body request body with objects with login, password and dateOfBirth fields
+     * @return report with numbers of imported and failed rows
+     */
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON})
+    public ImportReport importJson(InputStream body) throws IOException {
+        return userImportService.importJson(body);
+    }
+}
@@ -0,0 +1,12 @@
+package com.icl.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntrospectionRequest {
+    private String token;
+}
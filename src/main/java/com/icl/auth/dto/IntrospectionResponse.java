@@ -0,0 +1,33 @@
+package com.icl.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.icl.auth.security.Role;
+import com.icl.auth.security.UserPrincipal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of token introspection, inactive token has no user fields
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IntrospectionResponse {
+    private boolean active;
+
+    private Long id;
+
+    private String login;
+
+    private Role role;
+
+    public static IntrospectionResponse active(UserPrincipal principal) {
+        return new IntrospectionResponse(true, principal.getId(), principal.getLogin(), principal.getRole());
+    }
+
+    public static IntrospectionResponse inactive() {
+        return new IntrospectionResponse(false, null, null, null);
+    }
+}
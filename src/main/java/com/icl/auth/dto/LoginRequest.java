@@ -0,0 +1,16 @@
+package com.icl.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginRequest {
+    private String login;
+
+    @ToString.Exclude
+    private String password;
+}
@@ -0,0 +1,28 @@
+package com.icl.auth.dto;
+
+import com.icl.auth.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistrationRequest {
+    private String login;
+
+    @ToString.Exclude
+    private String password;
+
+    private LocalDate dateOfBirth;
+
+    /**
+     * @return new user with raw password, role is set, when user is saved
+     */
+    public User toUser() {
+        return new User(login, password, dateOfBirth, null);
+    }
+}
@@ -0,0 +1,21 @@
+package com.icl.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenResponse {
+    public static final String BEARER = "Bearer";
+
+    private String token;
+
+    private String tokenType;
+
+    /**
+     * Seconds until token expires
+     */
+    private long expiresIn;
+}
@@ -0,0 +1,20 @@
+package com.icl.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportRow {
+    private String login;
+
+    @ToString.Exclude
+    private String password;
+
+    private LocalDate dateOfBirth;
+}
@@ -0,0 +1,19 @@
+package com.icl.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPage {
+    private List<UserResponse> users;
+
+    /**
+     * Cursor for the next page, null when this page is the last one
+     */
+    private Long nextAfter;
+}
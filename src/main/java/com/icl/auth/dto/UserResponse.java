@@ -0,0 +1,33 @@
+package com.icl.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * User as it is returned on registration and listed and exported by administration endpoints. Fields are fixed,
+ * so the format does not follow changes of the {@link User} entity. Password hash is left out on purpose, export
+ * is not a way to move accounts with their credentials
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"id", "login", "dateOfBirth", "role"})
+public class UserResponse {
+    private Long id;
+
+    private String login;
+
+    private LocalDate dateOfBirth;
+
+    private Role role;
+
+    public static UserResponse from(User user) {
+        return new UserResponse(user.getId(), user.getLogin(), user.getDateOfBirth(), user.getRole());
+    }
+}
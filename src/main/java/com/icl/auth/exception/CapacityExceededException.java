@@ -0,0 +1,17 @@
+package com.icl.auth.exception;
+
+/**
+ * Thrown, when server is overloaded and work cannot be queued, so it is created without stack trace
+ */
+public abstract class CapacityExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    protected CapacityExceededException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
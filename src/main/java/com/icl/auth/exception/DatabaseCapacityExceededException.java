@@ -0,0 +1,7 @@
+package com.icl.auth.exception;
+
+public class DatabaseCapacityExceededException extends CapacityExceededException {
+    public DatabaseCapacityExceededException(long retryAfterSeconds) {
+        super("database queue is full", retryAfterSeconds);
+    }
+}
@@ -2,6 +2,7 @@ package com.icl.auth.exception;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -9,16 +10,53 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import javax.validation.ConstraintViolationException;
+import java.nio.charset.StandardCharsets;
 
 @ControllerAdvice
 public class GlobalControllerExceptionHandler extends ResponseEntityExceptionHandler {
+    private static final byte[] ACCESS_DENIED_BODY = "access denied".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Response to every failed login, it is immutable, so it is created once and shared by all requests
+     */
+    private static final ResponseEntity<byte[]> ACCESS_DENIED = ResponseEntity.status(HttpStatus.FORBIDDEN)
+            .contentType(MediaType.TEXT_PLAIN)
+            .contentLength(ACCESS_DENIED_BODY.length)
+            .body(ACCESS_DENIED_BODY);
+
+    /**
+     * Failed logins are the most frequent errors under brute-force load, so they bypass
+     * {@link #handleExceptionInternal} and do not read exception message. Body does not tell
+     * unknown login from wrong password
+     */
     @ExceptionHandler({
             WrongPasswordException.class,
-            UserNotFoundException.class,
-            ConstraintViolationException.class})
-    protected ResponseEntity<Object> handleCustomException(Exception ex, WebRequest request) {
-        String bodyOfResponse = ex.getMessage();
-        return handleExceptionInternal(ex, bodyOfResponse,
-                new HttpHeaders(), HttpStatus.FORBIDDEN, request);
+            UserNotFoundException.class})
+    protected ResponseEntity<byte[]> handleAuthenticationFailure() {
+        return ACCESS_DENIED;
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    protected ResponseEntity<String> handleConstraintViolation(ConstraintViolationException ex) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(CapacityExceededException.class)
+    protected ResponseEntity<Object> handleCapacityExceeded(CapacityExceededException ex, WebRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        return handleExceptionInternal(ex, ex.getMessage(), headers, HttpStatus.SERVICE_UNAVAILABLE, request);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    protected ResponseEntity<Object> handleRateLimitExceeded(RateLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .build();
+    }
+
+    @ExceptionHandler(LoginAlreadyTakenException.class)
+    protected ResponseEntity<String> handleLoginAlreadyTaken(LoginAlreadyTakenException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
     }
 }
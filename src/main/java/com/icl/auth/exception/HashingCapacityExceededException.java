@@ -0,0 +1,7 @@
+package com.icl.auth.exception;
+
+public class HashingCapacityExceededException extends CapacityExceededException {
+    public HashingCapacityExceededException(long retryAfterSeconds) {
+        super("password hashing queue is full", retryAfterSeconds);
+    }
+}
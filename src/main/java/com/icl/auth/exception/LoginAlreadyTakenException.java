@@ -0,0 +1,11 @@
+package com.icl.auth.exception;
+
+/**
+ * Thrown, when user is registered with login, which differs from login of existing user in case only or not at all.
+ * Registration spikes may produce it often, so it is created without stack trace
+ */
+public class LoginAlreadyTakenException extends RuntimeException {
+    public LoginAlreadyTakenException(String login) {
+        super(String.format("login %s is already taken", login), null, false, false);
+    }
+}
@@ -0,0 +1,20 @@
+package com.icl.auth.exception;
+
+/**
+ * Thrown for login and password, which no stored user can have, they are rejected before user is looked up.
+ * Clients get the same response as for a wrong password
+ */
+public class MalformedCredentialsException extends WrongPasswordException {
+
+    private MalformedCredentialsException(String message) {
+        super(message, null, false, false);
+    }
+
+    /**
+     * @param message constant message, it should not be built per call
+     * @return new exception without stack trace and suppressed exceptions
+     */
+    public static MalformedCredentialsException stackless(String message) {
+        return new MalformedCredentialsException(message);
+    }
+}
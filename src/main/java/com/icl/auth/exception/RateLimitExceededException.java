@@ -0,0 +1,17 @@
+package com.icl.auth.exception;
+
+/**
+ * Thrown, when login attempts exceed rate limit, so it is created without stack trace
+ */
+public class RateLimitExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long retryAfterSeconds) {
+        super("too many login attempts", null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,7 @@
+package com.icl.auth.exception;
+
+public class RegistrationCapacityExceededException extends CapacityExceededException {
+    public RegistrationCapacityExceededException(long retryAfterSeconds) {
+        super("registration queue is full", retryAfterSeconds);
+    }
+}
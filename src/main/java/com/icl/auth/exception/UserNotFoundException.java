@@ -1,6 +1,9 @@
 package com.icl.auth.exception;
 
-public class UserNotFoundException extends Exception{
+/**
+ * Thrown on every failed login, so instances created by {@link #stackless(String)} are used on that path
+ */
+public class UserNotFoundException extends Exception {
     public UserNotFoundException() {
         super();
     }
@@ -21,4 +24,19 @@ public class UserNotFoundException extends Exception{
     public UserNotFoundException(Throwable cause) {
         super(cause);
     }
+
+    protected UserNotFoundException(String message, Throwable cause,
+                                    boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+
+    /**
+     * Creates exception without stack trace and suppressed exceptions, which costs no more than a plain object
+     *
+     * @param message constant message, it should not be built per call
+     * @return new exception
+     */
+    public static UserNotFoundException stackless(String message) {
+        return new UserNotFoundException(message, null, false, false);
+    }
 }
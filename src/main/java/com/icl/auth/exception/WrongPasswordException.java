@@ -1,6 +1,9 @@
 package com.icl.auth.exception;
 
-public class WrongPasswordException extends Exception{
+/**
+ * Thrown on every failed login, so instances created by {@link #stackless(String)} are used on that path
+ */
+public class WrongPasswordException extends Exception {
     public WrongPasswordException() {
         super();
     }
@@ -16,4 +19,19 @@ public class WrongPasswordException extends Exception{
     public WrongPasswordException(Throwable cause) {
         super(cause);
     }
+
+    protected WrongPasswordException(String message, Throwable cause,
+                                     boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+
+    /**
+     * Creates exception without stack trace and suppressed exceptions, which costs no more than a plain object
+     *
+     * @param message constant message, it should not be built per call
+     * @return new exception
+     */
+    public static WrongPasswordException stackless(String message) {
+        return new WrongPasswordException(message, null, false, false);
+    }
 }
@@ -0,0 +1,46 @@
+package com.icl.auth.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Keeps subscribers of this node, a failing subscriber is logged and does not stop delivery to the others
+ */
+public abstract class AbstractInvalidationBus implements InvalidationBus {
+    private static final Logger log = LoggerFactory.getLogger(AbstractInvalidationBus.class);
+
+    private final List<Consumer<UserChangeEvent>> subscribers = new CopyOnWriteArrayList<>();
+    private final String nodeId;
+
+    /**
+     * @param nodeId id of this node, random id is generated when it is empty
+     */
+    protected AbstractInvalidationBus(String nodeId) {
+        this.nodeId = nodeId.isEmpty() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    @Override
+    public void subscribe(Consumer<UserChangeEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    protected void deliver(UserChangeEvent event) {
+        for (Consumer<UserChangeEvent> subscriber : subscribers) {
+            try {
+                subscriber.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("invalidation subscriber failed on {}", event, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.icl.auth.invalidation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bus, which connects application contexts of one JVM joined to the same auth.invalidation.channel,
+ * it is the default for a single node. Events are delivered synchronously on the publishing thread.
+ * Nodes running in separate processes need {@link JdbcInvalidationBus}
+ */
+@Component
+@ConditionalOnProperty(name = "auth.invalidation.mode", havingValue = "in-process", matchIfMissing = true)
+public class InProcessInvalidationBus extends AbstractInvalidationBus {
+    private static final Map<String, Set<InProcessInvalidationBus>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+
+    @Autowired
+    public InProcessInvalidationBus(@Value("${auth.invalidation.channel:users}") String channel,
+                                    @Value("${auth.invalidation.node-id:}") String nodeId) {
+        super(nodeId);
+        this.channel = channel;
+        CHANNELS.computeIfAbsent(channel, name -> ConcurrentHashMap.newKeySet()).add(this);
+    }
+
+    @Override
+    public void publish(UserChangeEvent event) {
+        for (InProcessInvalidationBus bus : CHANNELS.getOrDefault(channel, ConcurrentHashMap.newKeySet())) {
+            bus.deliver(event);
+        }
+    }
+
+    /**
+     * Leaves the channel, so closed context gets no more events
+     */
+    @PreDestroy
+    public void close() {
+        CHANNELS.computeIfPresent(channel, (name, buses) -> {
+            buses.remove(this);
+            return buses.isEmpty() ? null : buses;
+        });
+    }
+}
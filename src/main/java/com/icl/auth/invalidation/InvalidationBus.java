@@ -0,0 +1,29 @@
+package com.icl.auth.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link UserChangeEvent}s between nodes sharing the database. Events are delivered at most once
+ * and without ordering guarantees, so subscribers must only invalidate, never apply the event as new state.
+ * Lost events are bounded by time to live of the caches
+ */
+public interface InvalidationBus {
+
+    /**
+     * Delivers event to subscribers of this node synchronously and to other nodes asynchronously
+     *
+     * @param event change, which is already committed
+     */
+    void publish(UserChangeEvent event);
+
+    /**
+     * @param subscriber called for every event, including events published by this node,
+     *                   it must be fast and must not block
+     */
+    void subscribe(Consumer<UserChangeEvent> subscriber);
+
+    /**
+     * @return id of this node, which is set as origin of published events
+     */
+    String getNodeId();
+}
@@ -0,0 +1,128 @@
+package com.icl.auth.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Bus for nodes in separate processes, which share the database. Published events are appended to
+ * user_change_event table and every node polls rows added since its last poll, skipping rows it published
+ * itself. Events are published after the commit of the write, while its transaction is still bound to the thread,
+ * so they are inserted in a new transaction of their own. Rows older than retention are deleted. A row, whose transaction commits after a row with greater
+ * sequence number was already polled, is missed, caches of other nodes then expire by their time to live
+ */
+@Component
+@ConditionalOnProperty(name = "auth.invalidation.mode", havingValue = "jdbc")
+public class JdbcInvalidationBus extends AbstractInvalidationBus {
+    private static final Logger log = LoggerFactory.getLogger(JdbcInvalidationBus.class);
+    private static final String CREATE_TABLE = "create table if not exists user_change_event (" +
+            "seq bigserial primary key, type varchar(16) not null, user_id bigint, login varchar(255), " +
+            "version bigint, origin varchar(64) not null, created_at timestamp not null)";
+    private static final String INSERT_EVENT = "insert into user_change_event " +
+            "(type, user_id, login, version, origin, created_at) values (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_LAST_SEQ = "select coalesce(max(seq), 0) from user_change_event";
+    private static final String SELECT_EVENTS = "select seq, type, user_id, login, version, origin " +
+            "from user_change_event where seq > ? order by seq limit ?";
+    private static final String DELETE_EXPIRED = "delete from user_change_event where created_at < ?";
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> new Row(rs.getLong("seq"), new UserChangeEvent(
+            UserChangeEvent.Type.valueOf(rs.getString("type")),
+            (Long) rs.getObject("user_id"),
+            rs.getString("login"),
+            (Long) rs.getObject("version"),
+            rs.getString("origin")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final Duration retention;
+    private final int pollBatchSize;
+    private volatile long lastSeq;
+
+    @Autowired
+    public JdbcInvalidationBus(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               @Value("${auth.invalidation.node-id:}") String nodeId,
+                               @Value("${auth.invalidation.jdbc.retention:10m}") Duration retention,
+                               @Value("${auth.invalidation.jdbc.poll-batch-size:1000}") int pollBatchSize) {
+        super(nodeId);
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retention = retention;
+        this.pollBatchSize = pollBatchSize;
+    }
+
+    /**
+     * Creates the table, when it does not exist, and starts after its last row, as caches of a starting
+     * node are empty
+     */
+    @PostConstruct
+    public void init() {
+        jdbcTemplate.execute(CREATE_TABLE);
+        lastSeq = jdbcTemplate.queryForObject(SELECT_LAST_SEQ, Long.class);
+    }
+
+    @Override
+    public void publish(UserChangeEvent event) {
+        deliver(event);
+        try {
+            newTransaction.execute(status -> jdbcTemplate.update(INSERT_EVENT, event.getType().name(),
+                    event.getUserId(), event.getLogin(), event.getVersion(), event.getOrigin(),
+                    new Timestamp(System.currentTimeMillis())));
+        } catch (RuntimeException e) {
+            log.warn("failed to publish {}, other nodes keep cached user until it expires", event, e);
+        }
+    }
+
+    /**
+     * Delivers events published by other nodes since the previous poll
+     */
+    @Scheduled(fixedDelayString = "${auth.invalidation.jdbc.poll-interval-ms:500}")
+    public void poll() {
+        try {
+            List<Row> rows;
+            do {
+                rows = jdbcTemplate.query(SELECT_EVENTS, ROW_MAPPER, lastSeq, pollBatchSize);
+                for (Row row : rows) {
+                    lastSeq = row.seq;
+                    if (!getNodeId().equals(row.event.getOrigin())) {
+                        deliver(row.event);
+                    }
+                }
+            } while (rows.size() == pollBatchSize);
+        } catch (RuntimeException e) {
+            log.warn("invalidation poll failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.invalidation.jdbc.cleanup-interval-ms:60000}")
+    public void deleteExpired() {
+        try {
+            jdbcTemplate.update(DELETE_EXPIRED, new Timestamp(System.currentTimeMillis() - retention.toMillis()));
+        } catch (RuntimeException e) {
+            log.warn("failed to delete expired invalidation events", e);
+        }
+    }
+
+    private static final class Row {
+        private final long seq;
+        private final UserChangeEvent event;
+
+        private Row(long seq, UserChangeEvent event) {
+            this.seq = seq;
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.icl.auth.invalidation;
+
+import lombok.Value;
+
+/**
+ * Notification, that a user was written by some node, so other nodes drop what they cached about it.
+ * It identifies the user only, consumers read the current state from the database
+ */
+@Value
+public class UserChangeEvent {
+    Type type;
+    Long userId;
+    /**
+     * Normalized login, null when the writer did not know it, e.g. for password updates made by id
+     */
+    String login;
+    /**
+     * Version of the written row, null when it is unknown
+     */
+    Long version;
+    /**
+     * Id of the node, which published the event
+     */
+    String origin;
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
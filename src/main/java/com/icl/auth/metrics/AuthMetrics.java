@@ -0,0 +1,110 @@
+package com.icl.auth.metrics;
+
+import com.icl.auth.exception.CapacityExceededException;
+import com.icl.auth.exception.LoginAlreadyTakenException;
+import com.icl.auth.exception.MalformedCredentialsException;
+import com.icl.auth.exception.RateLimitExceededException;
+import com.icl.auth.exception.UserNotFoundException;
+import com.icl.auth.exception.WrongPasswordException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolationException;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Meters of authentication and registration. Login and registration timers are tagged with outcome, so
+ * their counts are the numbers of attempts per outcome
+ */
+@Component
+public class AuthMetrics {
+    public static final String SUCCESS = "success";
+    public static final String WRONG_PASSWORD = "wrong_password";
+    public static final String MALFORMED = "malformed";
+    public static final String USER_NOT_FOUND = "user_not_found";
+    public static final String VALIDATION_FAILURE = "validation_failure";
+    public static final String REJECTED = "rejected";
+    public static final String RATE_LIMITED = "rate_limited";
+    public static final String LOGIN_TAKEN = "login_taken";
+    public static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer lookupTimer;
+    private final Timer verificationTimer;
+
+    @Autowired
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.lookupTimer = Timer.builder("auth.authorize.lookup")
+                .description("Time to find user by login during authorization")
+                .register(meterRegistry);
+        this.verificationTimer = Timer.builder("auth.authorize.verification")
+                .description("Time to verify password hash during authorization")
+                .register(meterRegistry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public Timer lookupTimer() {
+        return lookupTimer;
+    }
+
+    public Timer verificationTimer() {
+        return verificationTimer;
+    }
+
+    /**
+     * @param sample  sample started when login request was received
+     * @param failure exception login failed with, or null if login succeeded
+     */
+    public void recordLogin(Timer.Sample sample, Throwable failure) {
+        sample.stop(timer("auth.login", "Login requests", outcome(failure)));
+    }
+
+    /**
+     * @param sample  sample started when registration request was received
+     * @param failure exception registration failed with, or null if user was registered
+     */
+    public void recordRegistration(Timer.Sample sample, Throwable failure) {
+        sample.stop(timer("auth.register", "Registration requests", outcome(failure)));
+    }
+
+    private Timer timer(String name, String description, String outcome) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param failure exception an attempt failed with, or null if it succeeded
+     * @return outcome, which meters and audit events are tagged with
+     */
+    public static String outcome(Throwable failure) {
+        if (failure instanceof CompletionException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        if (failure == null) {
+            return SUCCESS;
+        } else if (failure instanceof MalformedCredentialsException) {
+            return MALFORMED;
+        } else if (failure instanceof WrongPasswordException) {
+            return WRONG_PASSWORD;
+        } else if (failure instanceof UserNotFoundException) {
+            return USER_NOT_FOUND;
+        } else if (failure instanceof ConstraintViolationException) {
+            return VALIDATION_FAILURE;
+        } else if (failure instanceof CapacityExceededException) {
+            return REJECTED;
+        } else if (failure instanceof RateLimitExceededException) {
+            return RATE_LIMITED;
+        } else if (failure instanceof LoginAlreadyTakenException) {
+            return LOGIN_TAKEN;
+        }
+        return ERROR;
+    }
+}
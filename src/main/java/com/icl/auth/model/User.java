@@ -3,26 +3,57 @@ package com.icl.auth.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.icl.auth.security.Role;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.validator.constraints.Length;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import javax.persistence.*;
+import javax.validation.constraints.AssertTrue;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Past;
 import javax.validation.constraints.Pattern;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.Objects;
+import java.util.Locale;
 
+/**
+ * User account. It is versioned, so a write based on a stale copy fails instead of overwriting a concurrent one.
+ * Updates write changed columns only while the user is managed by the persistence context, a detached user
+ * is reattached and updated with all columns, password and role have their own single-column updates.
+ * Users are equal, when they have the same id.
+ * Table name is quoted, "user" is a reserved word in PostgreSQL, so native SQL has to quote it as well
+ */
 @Entity
+@Table(name = "\"user\"")
+@DynamicUpdate
 @Data
-@AllArgsConstructor
 @NoArgsConstructor(access = AccessLevel.PRIVATE, force = true)
 @ToString
-@NamedQuery(name = User.GET_BY_LOGIN, query = "SELECT u FROM User u WHERE login=:login")
+@NamedQueries({
+        @NamedQuery(name = User.GET_BY_LOGIN, query = "SELECT u FROM User u WHERE u.loginNormalized = :login"),
+        @NamedQuery(name = User.GET_ALL_LOGINS, query = "SELECT u.loginNormalized FROM User u"),
+        @NamedQuery(name = User.GET_PAGE, query = "SELECT u FROM User u WHERE u.id > :afterId ORDER BY u.id"),
+        @NamedQuery(name = User.GET_ALL_ORDERED, query = "SELECT u FROM User u ORDER BY u.id"),
+        @NamedQuery(name = User.UPDATE_PASSWORD, query = "UPDATE User u SET u.password = :newPassword, " +
+                "u.version = u.version + 1 WHERE u.id = :id AND u.password = :expectedPassword"),
+        @NamedQuery(name = User.UPDATE_ROLE, query = "UPDATE User u SET u.role = :role, " +
+                "u.version = u.version + 1 WHERE u.id = :id")
+})
 public class User implements Serializable {
     public static final String GET_BY_LOGIN = "GET_USER_BY_LOGIN";
+    public static final String GET_ALL_LOGINS = "GET_ALL_USER_LOGINS";
+    public static final String GET_PAGE = "GET_USER_PAGE";
+    public static final String GET_ALL_ORDERED = "GET_ALL_USERS_ORDERED_BY_ID";
+    public static final String UPDATE_PASSWORD = "UPDATE_USER_PASSWORD";
+    public static final String UPDATE_ROLE = "UPDATE_USER_ROLE";
+    public static final String PASSWORD_PATTERN = "\\w+\\W+";
+    public static final int MIN_PASSWORD_LENGTH = 3;
+    /**
+     * BCrypt uses only the first 72 bytes of a password
+     */
+    public static final int MAX_PASSWORD_BYTES = 72;
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,13 +62,22 @@ public class User implements Serializable {
     @NotNull
     @NotBlank
     @Length(min = 1)
-    @Column(unique = true)
     private String login;
 
+    /**
+     * Login as returned by {@link #normalizeLogin(String)}, it is unique and users are looked up by it,
+     * so logins differing only in case belong to the same user
+     */
+    @Column(name = "login_normalized", unique = true, nullable = false)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @JsonIgnore
+    private String loginNormalized;
+
     @NotNull
     @NotBlank
-    @Length(min = 3)
-    @Pattern(regexp = "\\w+\\W+")
+    @Length(min = MIN_PASSWORD_LENGTH)
+    @Pattern(regexp = PASSWORD_PATTERN)
     @ToString.Exclude
     @JsonIgnore
     private String password;
@@ -51,34 +91,78 @@ public class User implements Serializable {
     @Enumerated(value = EnumType.STRING)
     private Role role;
 
+    /**
+     * Incremented by every update, null until user is stored
+     */
+    @Version
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
+
+    public User(Long id, String login, String password, LocalDate dateOfBirth, Role role) {
+        this.id = id;
+        this.login = login;
+        this.loginNormalized = normalizeLogin(login);
+        this.password = password;
+        this.dateOfBirth = dateOfBirth;
+        this.role = role;
+    }
+
     public User(@NotNull @NotBlank @Length(min = 1) String login,
                 @NotNull @NotBlank @Length(min = 1) String password,
                 @NotNull @Past LocalDate dateOfBirth,
                 @NotNull Role role) {
+        this(null, login, password, dateOfBirth, role);
+    }
+
+    public void setLogin(String login) {
         this.login = login;
-        this.password = password;
-        this.dateOfBirth = dateOfBirth;
-        this.role = role;
+        this.loginNormalized = normalizeLogin(login);
+    }
+
+    /**
+     * @param login login as given by user
+     * @return login in lower case, the same instance if it has no upper case characters
+     */
+    public static String normalizeLogin(String login) {
+        return login == null ? null : login.toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalize() {
+        loginNormalized = normalizeLogin(login);
     }
 
     public boolean isNew() {
         return id == null;
     }
 
+    /**
+     * Validated for raw passwords only, encoded ones are shorter
+     */
+    @AssertTrue(message = "password must not be longer than " + MAX_PASSWORD_BYTES + " bytes")
+    @JsonIgnore
+    public boolean isPasswordWithinLimit() {
+        return password == null || password.getBytes(StandardCharsets.UTF_8).length <= MAX_PASSWORD_BYTES;
+    }
+
+    /**
+     * New users are equal only to themselves
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         User user = (User) o;
-        return Objects.equals(id, user.id) &&
-                Objects.equals(login, user.login) &&
-                Objects.equals(password, user.password) &&
-                Objects.equals(dateOfBirth, user.dateOfBirth) &&
-                role == user.role;
+        return id != null && id.equals(user.id);
     }
 
+    /**
+     * The same for every user, so it does not change, when a new user gets its id
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(id, login, password, dateOfBirth, role);
+        return User.class.hashCode();
     }
 }
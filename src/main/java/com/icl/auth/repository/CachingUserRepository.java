@@ -0,0 +1,145 @@
+package com.icl.auth.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheWriter;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.icl.auth.exception.UserNotFoundException;
+import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link UserRepository} decorator, which keeps recently used users by normalized login in a size bounded cache,
+ * entries expire after given time to live. Cache holds detached copies, so changes made by callers to
+ * returned users never leak into it. Entries are invalidated by writes made through it and by {@link #invalidate},
+ * which is called for writes made by other nodes.
+ * <p>
+ * Users are loaded outside of the cache, so a slow lookup holds no lock of the cache. Every invalidation advances
+ * a generation, a loaded user is dropped again, when the generation changed during its lookup, so a lookup
+ * racing with a write cannot cache the user as it was before the write. Writes known by id only find the login
+ * in an id to login index of cached users
+ */
+public class CachingUserRepository extends ForwardingUserRepository {
+    private final Cache<String, User> usersByLogin;
+    private final ConcurrentMap<Long, String> loginsById = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public CachingUserRepository(UserRepository delegate, long maximumSize, Duration timeToLive,
+                                 MeterRegistry meterRegistry) {
+        super(delegate);
+        this.usersByLogin = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .writer(new LoginIndexWriter())
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByLogin, "users");
+    }
+
+    @Override
+    public Optional<User> findByLogin(String login) {
+        String key = User.normalizeLogin(login);
+        User cached = usersByLogin.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+        long loadGeneration = generation.get();
+        Optional<User> user = super.findByLogin(login);
+        if (user.isPresent()) {
+            User copy = copyOf(user.get());
+            usersByLogin.put(key, copy);
+            if (generation.get() != loadGeneration) {
+                usersByLogin.asMap().remove(key, copy);
+            }
+        }
+        return user;
+    }
+
+    @Override
+    public User save(User user) {
+        invalidate(user.getId(), user.getLogin());
+        User saved = super.save(user);
+        invalidate(saved.getId(), saved.getLogin());
+        return saved;
+    }
+
+    @Override
+    public List<User> insertAll(List<User> users) {
+        List<User> inserted = super.insertAll(users);
+        inserted.forEach(user -> invalidate(null, user.getLogin()));
+        return inserted;
+    }
+
+    @Override
+    public boolean updatePassword(Long id, String expectedPassword, String newPassword) {
+        boolean updated = super.updatePassword(id, expectedPassword, newPassword);
+        invalidate(id, null);
+        return updated;
+    }
+
+    @Override
+    public boolean updateRole(Long id, Role role) {
+        boolean updated = super.updateRole(id, role);
+        invalidate(id, null);
+        return updated;
+    }
+
+    @Override
+    public void deleteById(Long id) throws UserNotFoundException {
+        super.deleteById(id);
+        invalidate(id, null);
+    }
+
+    /**
+     * Drops cached user matching either id or login
+     *
+     * @param id    user's id, may be null
+     * @param login user's login, may be null
+     */
+    public void invalidate(Long id, String login) {
+        generation.incrementAndGet();
+        if (login != null) {
+            usersByLogin.invalidate(User.normalizeLogin(login));
+        }
+        if (id != null) {
+            String cachedLogin = loginsById.get(id);
+            if (cachedLogin != null) {
+                usersByLogin.invalidate(cachedLogin);
+            }
+        }
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User(user.getId(), user.getLogin(), user.getPassword(), user.getDateOfBirth(), user.getRole());
+        copy.setVersion(user.getVersion());
+        return copy;
+    }
+
+    /**
+     * Keeps {@link #loginsById} in step with cache entries, it is called atomically with their changes
+     */
+    private class LoginIndexWriter implements CacheWriter<String, User> {
+        @Override
+        public void write(String login, User user) {
+            if (user.getId() != null) {
+                loginsById.put(user.getId(), login);
+            }
+        }
+
+        @Override
+        public void delete(String login, User user, RemovalCause cause) {
+            if (user != null && user.getId() != null) {
+                loginsById.remove(user.getId(), login);
+            }
+        }
+    }
+}
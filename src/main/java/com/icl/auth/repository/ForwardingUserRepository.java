@@ -0,0 +1,80 @@
+package com.icl.auth.repository;
+
+import com.icl.auth.exception.UserNotFoundException;
+import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Base class for {@link UserRepository} decorators, forwards every call to the wrapped repository
+ */
+public abstract class ForwardingUserRepository implements UserRepository {
+    private final UserRepository delegate;
+
+    protected ForwardingUserRepository(UserRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Optional<User> findByLogin(String login) {
+        return delegate.findByLogin(login);
+    }
+
+    @Override
+    public User save(User user) {
+        return delegate.save(user);
+    }
+
+    @Override
+    public List<User> insertAll(List<User> users) {
+        return delegate.insertAll(users);
+    }
+
+    @Override
+    public boolean updatePassword(Long id, String expectedPassword, String newPassword) {
+        return delegate.updatePassword(id, expectedPassword, newPassword);
+    }
+
+    @Override
+    public boolean updateRole(Long id, Role role) {
+        return delegate.updateRole(id, role);
+    }
+
+    @Override
+    public void deleteById(Long id) throws UserNotFoundException {
+        delegate.deleteById(id);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<User> findPage(Long afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public Stream<User> streamAll(int fetchSize) {
+        return delegate.streamAll(fetchSize);
+    }
+
+    @Override
+    public List<String> findAllLogins() {
+        return delegate.findAllLogins();
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return delegate.existsById(id);
+    }
+}
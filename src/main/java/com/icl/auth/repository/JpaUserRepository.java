@@ -1,10 +1,20 @@
 package com.icl.auth.repository;
 
 import com.icl.auth.exception.UserNotFoundException;
+import com.icl.auth.invalidation.InvalidationBus;
+import com.icl.auth.invalidation.UserChangeEvent;
 import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -12,40 +22,159 @@ import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+/**
+ * Reads are made in read-only transactions, so they are served by a replica, when replicas are configured.
+ * Every write publishes {@link UserChangeEvent} to {@link InvalidationBus} after its transaction commits
+ */
 @Repository
 public class JpaUserRepository implements UserRepository {
+    private static final String INSERT_USER = "insert into \"user\" "
+            + "(login, login_normalized, password, date_of_birth, role, version) values (?, ?, ?, ?, ?, 0)";
+
     @PersistenceContext
     private EntityManager em;
 
+    private final InvalidationBus invalidationBus;
+
     @Autowired
-    public JpaUserRepository(EntityManager em) {
+    public JpaUserRepository(EntityManager em, InvalidationBus invalidationBus) {
         this.em = em;
+        this.invalidationBus = invalidationBus;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<User> findById(Long id) {
         return Optional.ofNullable(em.find(User.class, id));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<User> findByLogin(String login) {
-        return Optional.ofNullable(em.createNamedQuery(User.GET_BY_LOGIN, User.class)
-                .setParameter("login", login)
-                .getSingleResult());
+        List<User> users = em.createNamedQuery(User.GET_BY_LOGIN, User.class)
+                .setParameter("login", User.normalizeLogin(login))
+                .setMaxResults(1)
+                .getResultList();
+        return users.isEmpty() ? Optional.empty() : Optional.of(users.get(0));
     }
 
+    /**
+     * Inserts new user or updates stored one. A detached user is reattached without reading its row, it is updated
+     * by a single statement, which writes all columns and matches the row by id and version, so an update based
+     * on a stale copy fails. Only a user managed by the current persistence context gets an update of changed
+     * columns, use {@link #updatePassword(Long, String, String)} and {@link #updateRole(Long, Role)} to change
+     * a single column. Version of given user is incremented on update
+     *
+     * @param user new user or user read from this repository, possibly modified
+     * @return given user
+     * @throws IllegalArgumentException, when stored user has no version
+     * @throws ObjectOptimisticLockingFailureException, when user was updated or deleted since it was read
+     */
     @Override
     @Transactional
     public User save(User user) {
         if (user.isNew()) {
             em.persist(user);
+            publishAfterCommit(UserChangeEvent.Type.CREATED, user);
             return user;
-        } else {
-            return em.merge(user);
         }
+        if (user.getVersion() == null) {
+            throw new IllegalArgumentException("user " + user.getId() + " has no version, it must be read first");
+        }
+        if (!em.contains(user)) {
+            em.unwrap(Session.class).update(user);
+        }
+        publishAfterCommit(UserChangeEvent.Type.UPDATED, user);
+        return user;
+    }
+
+    /**
+     * Inserts new users with a single JDBC batch in one transaction, bypassing persistence context,
+     * which can not batch inserts of entities with {@link javax.persistence.GenerationType#IDENTITY} ids.
+     * Users are expected to be validated and have encoded passwords, generated ids are set to given users
+     *
+     * @param users new users
+     * @return given users
+     */
+    @Override
+    @Transactional
+    public List<User> insertAll(List<User> users) {
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_USER,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (User user : users) {
+                    statement.setString(1, user.getLogin());
+                    statement.setString(2, User.normalizeLogin(user.getLogin()));
+                    statement.setString(3, user.getPassword());
+                    statement.setDate(4, Date.valueOf(user.getDateOfBirth()));
+                    statement.setString(5, user.getRole().name());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (int i = 0; i < users.size() && keys.next(); i++) {
+                        users.get(i).setId(keys.getLong(1));
+                        users.get(i).setVersion(0L);
+                    }
+                }
+            }
+        });
+        for (User user : users) {
+            publishAfterCommit(UserChangeEvent.Type.CREATED, user);
+        }
+        return users;
+    }
+
+    /**
+     * Replaces password hash of user without loading it, only if the stored hash is still the expected one.
+     * Version is incremented, so copies read before are not saved over the new hash
+     *
+     * @param id               user's id
+     * @param expectedPassword hash, which is expected to be stored now
+     * @param newPassword      new hash
+     * @return true, if password was replaced
+     */
+    @Override
+    @Transactional
+    public boolean updatePassword(Long id, String expectedPassword, String newPassword) {
+        boolean updated = em.createNamedQuery(User.UPDATE_PASSWORD)
+                .setParameter("id", id)
+                .setParameter("expectedPassword", expectedPassword)
+                .setParameter("newPassword", newPassword)
+                .executeUpdate() == 1;
+        if (updated) {
+            publishAfterCommit(UserChangeEvent.Type.UPDATED, id);
+        }
+        return updated;
+    }
+
+    /**
+     * Replaces role of user without loading it, version is incremented
+     *
+     * @param id   user's id
+     * @param role new role
+     * @return true, if user exists
+     */
+    @Override
+    @Transactional
+    public boolean updateRole(Long id, Role role) {
+        boolean updated = em.createNamedQuery(User.UPDATE_ROLE)
+                .setParameter("id", id)
+                .setParameter("role", role)
+                .executeUpdate() == 1;
+        if (updated) {
+            publishAfterCommit(UserChangeEvent.Type.UPDATED, id);
+        }
+        return updated;
     }
 
     @Override
@@ -54,12 +183,14 @@ public class JpaUserRepository implements UserRepository {
         User user;
         if ((user = em.find(User.class, id)) != null) {
             em.remove(user);
+            publishAfterCommit(UserChangeEvent.Type.DELETED, user);
         } else {
             throw new UserNotFoundException(id);
         }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<User> findAll() {
         CriteriaBuilder criteriaBuilder = em.getCriteriaBuilder();
         CriteriaQuery<User> criteriaQuery = criteriaBuilder.createQuery(User.class);
@@ -69,8 +200,87 @@ public class JpaUserRepository implements UserRepository {
         return findAll.getResultList();
     }
 
+    /**
+     * Returns page of users ordered by id, using id of the last user of previous page as a cursor,
+     * so database seeks by primary key index instead of skipping rows as with OFFSET
+     *
+     * @param afterId id of the last user of previous page, null for the first page
+     * @param limit   maximum number of users in page
+     * @return users with ids greater than afterId
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findPage(Long afterId, int limit) {
+        return em.createNamedQuery(User.GET_PAGE, User.class)
+                .setParameter("afterId", afterId == null ? Long.MIN_VALUE : afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Streams all users ordered by id from a stateless session, so read users are not kept in any
+     * persistence context. Stream holds database connection until it is closed
+     *
+     * @param fetchSize number of rows fetched from database per round trip
+     * @return stream of detached users, which must be closed
+     */
+    @Override
+    public Stream<User> streamAll(int fetchSize) {
+        StatelessSession session = em.getEntityManagerFactory().unwrap(SessionFactory.class).openStatelessSession();
+        try {
+            Transaction transaction = session.beginTransaction();
+            return session.createNamedQuery(User.GET_ALL_ORDERED, User.class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .stream()
+                    .onClose(() -> {
+                        try {
+                            transaction.commit();
+                        } finally {
+                            session.close();
+                        }
+                    });
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
+
     @Override
+    @Transactional(readOnly = true)
+    public List<String> findAllLogins() {
+        return em.createNamedQuery(User.GET_ALL_LOGINS, String.class).getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public boolean existsById(Long id) {
         return em.find(User.class, id) != null;
     }
+
+    private void publishAfterCommit(UserChangeEvent.Type type, User user) {
+        publishAfterCommit(() -> new UserChangeEvent(type, user.getId(), User.normalizeLogin(user.getLogin()),
+                user.getVersion(), invalidationBus.getNodeId()));
+    }
+
+    private void publishAfterCommit(UserChangeEvent.Type type, Long id) {
+        publishAfterCommit(() -> new UserChangeEvent(type, id, null, null, invalidationBus.getNodeId()));
+    }
+
+    /**
+     * Publishes change once the current transaction commits, so other nodes never reload the state it replaces,
+     * nothing is published on rollback. Event is made after commit, when version of written user is known
+     */
+    private void publishAfterCommit(Supplier<UserChangeEvent> event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    invalidationBus.publish(event.get());
+                }
+            });
+        } else {
+            invalidationBus.publish(event.get());
+        }
+    }
 }
@@ -0,0 +1,162 @@
+package com.icl.auth.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.icl.auth.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Answers "user not found" for unknown logins without a database query. Holds a {@link LoginBloomFilter}
+ * of existing logins, which is rebuilt from the database in background, and a short-lived cache
+ * of logins, which were recently looked up and not found
+ */
+@Component
+@ConditionalOnProperty(name = "auth.login-filter.enabled", havingValue = "true", matchIfMissing = true)
+public class LoginExistenceFilter {
+    private static final Logger log = LoggerFactory.getLogger(LoginExistenceFilter.class);
+    private static final int PRESENCE_STRIPES = 64;
+
+    private final UserRepository userRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Cache<String, Boolean> absentLogins;
+    private final Counter bloomFilterHits;
+    private final Counter negativeCacheHits;
+    /**
+     * Number of {@link #recordPresent(String)} calls per stripe of logins, a lookup, which started before
+     * a login was recorded, must not cache it as absent
+     */
+    private final AtomicLongArray presenceStamps = new AtomicLongArray(PRESENCE_STRIPES);
+
+    private volatile LoginBloomFilter bloomFilter;
+    private volatile LoginBloomFilter rebuildingFilter;
+    private volatile long lastLoginCount;
+
+    @Autowired
+    public LoginExistenceFilter(JpaUserRepository userRepository,
+                                @Value("${auth.login-filter.expected-insertions:100000}") long expectedInsertions,
+                                @Value("${auth.login-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                @Value("${auth.login-filter.negative-cache.ttl:PT30S}") Duration negativeCacheTtl,
+                                @Value("${auth.login-filter.negative-cache.max-size:100000}") long negativeCacheSize,
+                                MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.absentLogins = Caffeine.newBuilder()
+                .expireAfterWrite(negativeCacheTtl)
+                .maximumSize(negativeCacheSize)
+                .build();
+        this.bloomFilterHits = Counter.builder("auth.login-filter.rejected")
+                .tag("source", "bloom-filter")
+                .description("Unknown logins answered without a database query")
+                .register(meterRegistry);
+        this.negativeCacheHits = Counter.builder("auth.login-filter.rejected")
+                .tag("source", "negative-cache")
+                .description("Unknown logins answered without a database query")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param login user's login, it is compared after {@link User#normalizeLogin(String)}
+     * @return true, if user with given login definitely does not exist, false if it might exist
+     */
+    public boolean isKnownAbsent(String login) {
+        login = User.normalizeLogin(login);
+        if (absentLogins.getIfPresent(login) != null) {
+            negativeCacheHits.increment();
+            return true;
+        }
+        LoginBloomFilter filter = bloomFilter;
+        if (filter != null && !filter.mightContain(login)) {
+            bloomFilterHits.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param login user's login
+     * @return stamp to be passed to {@link #recordAbsent(String, long)}, taken before the login is looked up
+     */
+    public long absenceStamp(String login) {
+        return presenceStamps.get(stripe(User.normalizeLogin(login)));
+    }
+
+    /**
+     * Caches login as absent, unless it was recorded as present since the stamp was taken, so a lookup,
+     * which raced with a save of the same login, cannot hide the new user
+     *
+     * @param login user's login, which was looked up and not found
+     * @param stamp {@link #absenceStamp(String)} taken before the lookup
+     */
+    public void recordAbsent(String login, long stamp) {
+        login = User.normalizeLogin(login);
+        int stripe = stripe(login);
+        if (presenceStamps.get(stripe) != stamp) {
+            return;
+        }
+        absentLogins.put(login, Boolean.TRUE);
+        if (presenceStamps.get(stripe) != stamp) {
+            absentLogins.invalidate(login);
+        }
+    }
+
+    public void recordPresent(String login) {
+        login = User.normalizeLogin(login);
+        presenceStamps.incrementAndGet(stripe(login));
+        LoginBloomFilter filter = bloomFilter;
+        if (filter != null) {
+            filter.put(login);
+        }
+        LoginBloomFilter rebuilding = rebuildingFilter;
+        if (rebuilding != null) {
+            rebuilding.put(login);
+        }
+        absentLogins.invalidate(login);
+    }
+
+    private static int stripe(String normalizedLogin) {
+        return normalizedLogin.hashCode() & (PRESENCE_STRIPES - 1);
+    }
+
+    /**
+     * Builds new filter from logins stored in database and replaces current one. Logins recorded while
+     * rebuild is in progress are put into both filters, so none of them is lost on replacement.
+     * Filter is sized for twice the number of logins seen on previous rebuild to keep false positive rate
+     * while the table grows. Logins are read from the primary, a lagging replica would miss recent users,
+     * which would then be answered as not found until the next rebuild
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${auth.login-filter.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        long started = System.nanoTime();
+        try {
+            LoginBloomFilter rebuilding = new LoginBloomFilter(
+                    Math.max(expectedInsertions, lastLoginCount * 2), falsePositiveRate);
+            rebuildingFilter = rebuilding;
+            List<String> logins = ReplicaRoutingDataSource.onPrimary(userRepository::findAllLogins);
+            for (String login : logins) {
+                rebuilding.put(login);
+            }
+            bloomFilter = rebuilding;
+            lastLoginCount = logins.size();
+            log.debug("login filter rebuilt with {} logins in {} ms",
+                    logins.size(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+        } catch (RuntimeException e) {
+            log.warn("login filter rebuild failed, keeping previous filter", e);
+        } finally {
+            rebuildingFilter = null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.icl.auth.repository;
+
+import com.icl.auth.model.User;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link UserRepository} decorator, which skips database lookups for logins that {@link LoginExistenceFilter}
+ * knows to be absent
+ */
+public class LoginFilteringUserRepository extends ForwardingUserRepository {
+    private final LoginExistenceFilter filter;
+
+    public LoginFilteringUserRepository(UserRepository delegate, LoginExistenceFilter filter) {
+        super(delegate);
+        this.filter = filter;
+    }
+
+    @Override
+    public Optional<User> findByLogin(String login) {
+        if (filter.isKnownAbsent(login)) {
+            return Optional.empty();
+        }
+        long stamp = filter.absenceStamp(login);
+        Optional<User> user = super.findByLogin(login);
+        if (!user.isPresent()) {
+            filter.recordAbsent(login, stamp);
+        }
+        return user;
+    }
+
+    @Override
+    public User save(User user) {
+        User saved = super.save(user);
+        filter.recordPresent(saved.getLogin());
+        return saved;
+    }
+
+    @Override
+    public List<User> insertAll(List<User> users) {
+        List<User> inserted = super.insertAll(users);
+        inserted.forEach(user -> filter.recordPresent(user.getLogin()));
+        return inserted;
+    }
+}
@@ -0,0 +1,119 @@
+package com.icl.auth.repository;
+
+import com.icl.auth.exception.UserNotFoundException;
+import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link UserRepository} decorator, which records latency of every call to the wrapped repository
+ * in "auth.repository" timer tagged with method name. Streams are timed until they are opened
+ */
+public class MeteredUserRepository extends ForwardingUserRepository {
+    private final Timer findById;
+    private final Timer findByLogin;
+    private final Timer save;
+    private final Timer insertAll;
+    private final Timer updatePassword;
+    private final Timer updateRole;
+    private final Timer deleteById;
+    private final Timer findAll;
+    private final Timer findPage;
+    private final Timer streamAll;
+    private final Timer findAllLogins;
+    private final Timer existsById;
+
+    public MeteredUserRepository(UserRepository delegate, MeterRegistry meterRegistry) {
+        super(delegate);
+        this.findById = timer(meterRegistry, "findById");
+        this.findByLogin = timer(meterRegistry, "findByLogin");
+        this.save = timer(meterRegistry, "save");
+        this.insertAll = timer(meterRegistry, "insertAll");
+        this.updatePassword = timer(meterRegistry, "updatePassword");
+        this.updateRole = timer(meterRegistry, "updateRole");
+        this.deleteById = timer(meterRegistry, "deleteById");
+        this.findAll = timer(meterRegistry, "findAll");
+        this.findPage = timer(meterRegistry, "findPage");
+        this.streamAll = timer(meterRegistry, "streamAll");
+        this.findAllLogins = timer(meterRegistry, "findAllLogins");
+        this.existsById = timer(meterRegistry, "existsById");
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return findById.record(() -> super.findById(id));
+    }
+
+    @Override
+    public Optional<User> findByLogin(String login) {
+        return findByLogin.record(() -> super.findByLogin(login));
+    }
+
+    @Override
+    public User save(User user) {
+        return save.record(() -> super.save(user));
+    }
+
+    @Override
+    public List<User> insertAll(List<User> users) {
+        return insertAll.record(() -> super.insertAll(users));
+    }
+
+    @Override
+    public boolean updatePassword(Long id, String expectedPassword, String newPassword) {
+        return updatePassword.record(() -> super.updatePassword(id, expectedPassword, newPassword));
+    }
+
+    @Override
+    public boolean updateRole(Long id, Role role) {
+        return updateRole.record(() -> super.updateRole(id, role));
+    }
+
+    @Override
+    public void deleteById(Long id) throws UserNotFoundException {
+        long started = System.nanoTime();
+        try {
+            super.deleteById(id);
+        } finally {
+            deleteById.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public List<User> findAll() {
+        return findAll.record(super::findAll);
+    }
+
+    @Override
+    public List<User> findPage(Long afterId, int limit) {
+        return findPage.record(() -> super.findPage(afterId, limit));
+    }
+
+    @Override
+    public Stream<User> streamAll(int fetchSize) {
+        return streamAll.record(() -> super.streamAll(fetchSize));
+    }
+
+    @Override
+    public List<String> findAllLogins() {
+        return findAllLogins.record(super::findAllLogins);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return existsById.record(() -> super.existsById(id));
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String method) {
+        return Timer.builder("auth.repository")
+                .description("Latency of user repository calls")
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,112 @@
+package com.icl.auth.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.icl.auth.exception.UserNotFoundException;
+import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link UserRepository} decorator for replica routing. Users written through it are read from the primary
+ * for a while after the write, which has to cover replication lag, so a user can log in right after
+ * registration. Users written by other nodes are recorded by {@link #recordWrite(Long, String)}, so caches
+ * invalidated by their writes are not refilled from a lagging replica. Other reads go wherever
+ * {@link ReplicaRoutingDataSource} routes them
+ */
+public class ReadYourWritesUserRepository extends ForwardingUserRepository {
+    private final Cache<Long, Boolean> recentIds;
+    private final Cache<String, Boolean> recentLogins;
+
+    public ReadYourWritesUserRepository(UserRepository delegate, Duration window, long maximumSize) {
+        super(delegate);
+        this.recentIds = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumSize)
+                .build();
+        this.recentLogins = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (id != null && recentIds.getIfPresent(id) != null) {
+            return ReplicaRoutingDataSource.onPrimary(() -> super.findById(id));
+        }
+        return super.findById(id);
+    }
+
+    @Override
+    public Optional<User> findByLogin(String login) {
+        if (login != null && recentLogins.getIfPresent(User.normalizeLogin(login)) != null) {
+            return ReplicaRoutingDataSource.onPrimary(() -> super.findByLogin(login));
+        }
+        return super.findByLogin(login);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        if (id != null && recentIds.getIfPresent(id) != null) {
+            return ReplicaRoutingDataSource.onPrimary(() -> super.existsById(id));
+        }
+        return super.existsById(id);
+    }
+
+    @Override
+    public User save(User user) {
+        User saved = super.save(user);
+        recordWrite(saved);
+        return saved;
+    }
+
+    @Override
+    public List<User> insertAll(List<User> users) {
+        List<User> inserted = super.insertAll(users);
+        inserted.forEach(this::recordWrite);
+        return inserted;
+    }
+
+    @Override
+    public boolean updatePassword(Long id, String expectedPassword, String newPassword) {
+        boolean updated = super.updatePassword(id, expectedPassword, newPassword);
+        recentIds.put(id, Boolean.TRUE);
+        return updated;
+    }
+
+    @Override
+    public boolean updateRole(Long id, Role role) {
+        boolean updated = super.updateRole(id, role);
+        recentIds.put(id, Boolean.TRUE);
+        return updated;
+    }
+
+    @Override
+    public void deleteById(Long id) throws UserNotFoundException {
+        super.deleteById(id);
+        recentIds.put(id, Boolean.TRUE);
+    }
+
+    /**
+     * Makes reads of user go to the primary for the window
+     *
+     * @param id    user's id, may be null
+     * @param login user's login, may be null
+     */
+    public void recordWrite(Long id, String login) {
+        if (id != null) {
+            recentIds.put(id, Boolean.TRUE);
+        }
+        if (login != null) {
+            recentLogins.put(User.normalizeLogin(login), Boolean.TRUE);
+        }
+    }
+
+    private void recordWrite(User user) {
+        recordWrite(user.getId(), user.getLogin());
+    }
+}
@@ -0,0 +1,196 @@
+package com.icl.auth.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Routes connections of read-only transactions to healthy replicas in turn and all other connections
+ * to the primary. Replica, which fails to give a connection, is taken out of rotation until a health check
+ * finds it valid again, meanwhile its reads go to the primary. Replica pools should have a short connection
+ * timeout, as the read, which finds a replica down, waits for it before it falls back to the primary. Target connection is taken lazily on first
+ * statement, because transaction managers take connection before read-only flag of transaction is exposed
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final Router router;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, int validationTimeoutSeconds) {
+        this(new Router(primary, replicas, validationTimeoutSeconds));
+    }
+
+    private ReplicaRoutingDataSource(Router router) {
+        super(router);
+        this.router = router;
+    }
+
+    /**
+     * Runs action with every connection taken on the current thread routed to the primary
+     *
+     * @param action action, which has to see the latest writes
+     * @return result of action
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            }
+        }
+    }
+
+    /**
+     * Validates replicas, taking failed ones out of rotation and returning recovered ones into it
+     */
+    @Scheduled(fixedDelayString = "${auth.replica.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        router.checkReplicas();
+    }
+
+    /**
+     * @return number of replicas in rotation
+     */
+    public int getHealthyReplicaCount() {
+        return router.getHealthyReplicaCount();
+    }
+
+    /**
+     * Closes primary and replica pools
+     */
+    @Override
+    public void close() throws Exception {
+        router.close();
+    }
+
+    /**
+     * Chooses target data source for every connection taken
+     */
+    static class Router extends AbstractDataSource {
+        private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+        private final DataSource primary;
+        private final List<Replica> replicas;
+        private final int validationTimeoutSeconds;
+        private final AtomicInteger next = new AtomicInteger();
+
+        Router(DataSource primary, List<DataSource> replicas, int validationTimeoutSeconds) {
+            this.primary = primary;
+            this.replicas = new ArrayList<>(replicas.size());
+            this.validationTimeoutSeconds = validationTimeoutSeconds;
+            for (int i = 0; i < replicas.size(); i++) {
+                this.replicas.add(new Replica("replica-" + i, replicas.get(i)));
+            }
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Replica replica = chooseReplica();
+            if (replica == null) {
+                return primary.getConnection();
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.markDown(e);
+                return primary.getConnection();
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return primary.getConnection(username, password);
+        }
+
+        void checkReplicas() {
+            for (Replica replica : replicas) {
+                try (Connection connection = replica.dataSource.getConnection()) {
+                    if (connection.isValid(validationTimeoutSeconds)) {
+                        replica.markUp();
+                    } else {
+                        replica.markDown(null);
+                    }
+                } catch (SQLException e) {
+                    replica.markDown(e);
+                }
+            }
+        }
+
+        int getHealthyReplicaCount() {
+            int healthy = 0;
+            for (Replica replica : replicas) {
+                if (replica.healthy) {
+                    healthy++;
+                }
+            }
+            return healthy;
+        }
+
+        void close() throws Exception {
+            for (Replica replica : replicas) {
+                closeIfPossible(replica.dataSource);
+            }
+            closeIfPossible(primary);
+        }
+
+        private static void closeIfPossible(DataSource dataSource) throws Exception {
+            if (dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) dataSource).close();
+            }
+        }
+
+        private Replica chooseReplica() {
+            if (replicas.isEmpty() || FORCE_PRIMARY.get() != null
+                    || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                return null;
+            }
+            int start = next.getAndIncrement();
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+                if (replica.healthy) {
+                    return replica;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        void markDown(SQLException cause) {
+            if (healthy) {
+                healthy = false;
+                Router.log.warn("{} is taken out of rotation, reads go to primary", name, cause);
+            }
+        }
+
+        void markUp() {
+            if (!healthy) {
+                healthy = true;
+                Router.log.info("{} is back in rotation", name);
+            }
+        }
+    }
+}
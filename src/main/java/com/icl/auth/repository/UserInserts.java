@@ -0,0 +1,70 @@
+package com.icl.auth.repository;
+
+import com.icl.auth.model.User;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bulk inserts of users, which report conflicts per user, and recognition of unique constraint violations
+ */
+public final class UserInserts {
+    /**
+     * SQLSTATE of unique constraint violation, the same in PostgreSQL and H2
+     */
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private UserInserts() {
+    }
+
+    /**
+     * Inserts users of all items with a single {@link UserRepository#insertAll(List)}. If the batch violates
+     * a constraint, its users are inserted one by one, so only items conflicting with stored data fail
+     *
+     * @param userRepository repository to insert users into
+     * @param items          items carrying new users
+     * @param user           user of item
+     * @param inserted       called for every item, which user is inserted
+     * @param failed         called for every item, which user violates a constraint
+     */
+    public static <T> void insertAll(UserRepository userRepository, List<T> items, Function<T, User> user,
+                                     Consumer<T> inserted, BiConsumer<T, DataIntegrityViolationException> failed) {
+        List<User> users = new ArrayList<>(items.size());
+        items.forEach(item -> users.add(user.apply(item)));
+        try {
+            userRepository.insertAll(users);
+            items.forEach(inserted);
+            return;
+        } catch (DataIntegrityViolationException batchFailure) {
+            // users are inserted one by one below
+        }
+        for (T item : items) {
+            try {
+                userRepository.insertAll(Collections.singletonList(user.apply(item)));
+            } catch (DataIntegrityViolationException e) {
+                failed.accept(item, e);
+                continue;
+            }
+            inserted.accept(item);
+        }
+    }
+
+    /**
+     * @param e failed write
+     * @return true, if write failed because of a duplicate value of a unique column, i.e. login
+     */
+    public static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && UNIQUE_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
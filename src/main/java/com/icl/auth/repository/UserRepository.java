@@ -2,9 +2,11 @@ package com.icl.auth.repository;
 
 import com.icl.auth.exception.UserNotFoundException;
 import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository {
     Optional<User> findById(Long id);
@@ -13,9 +15,24 @@ public interface UserRepository {
 
     User save(User user);
 
+    List<User> insertAll(List<User> users);
+
+    boolean updatePassword(Long id, String expectedPassword, String newPassword);
+
+    boolean updateRole(Long id, Role role);
+
     void deleteById(Long id) throws UserNotFoundException;
 
     List<User> findAll();
 
+    List<User> findPage(Long afterId, int limit);
+
+    Stream<User> streamAll(int fetchSize);
+
+    /**
+     * @return logins of all users normalized by {@link User#normalizeLogin(String)}
+     */
+    List<String> findAllLogins();
+
     boolean existsById(Long id);
 }
@@ -0,0 +1,60 @@
+package com.icl.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps revoked tokens of this node in memory until they expire. There is no size bound, an evicted revocation
+ * would make a revoked token valid again
+ */
+public abstract class AbstractTokenRevocationStore implements TokenRevocationStore {
+    private final Cache<String, Long> revokedTokens;
+
+    protected AbstractTokenRevocationStore(Clock clock) {
+        this.revokedTokens = Caffeine.newBuilder()
+                .expireAfter(new UntilTokenExpiry(clock))
+                .build();
+    }
+
+    @Override
+    public boolean isRevoked(String token) {
+        return revokedTokens.getIfPresent(token) != null;
+    }
+
+    /**
+     * Makes token revoked for this node
+     *
+     * @param expiresAt expiry of token in epoch seconds
+     */
+    protected void remember(String token, long expiresAt) {
+        revokedTokens.put(token, expiresAt);
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, Long> {
+        private final Clock clock;
+
+        private UntilTokenExpiry(Clock clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public long expireAfterCreate(String token, Long expiresAt, long currentTime) {
+            long seconds = Math.max(0, expiresAt - clock.instant().getEpochSecond());
+            return TimeUnit.SECONDS.toNanos(seconds);
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Long expiresAt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, Long expiresAt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
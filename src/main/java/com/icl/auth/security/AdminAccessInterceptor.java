@@ -0,0 +1,55 @@
+package com.icl.auth.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Lets only users with {@link Role#ADMIN} through. User is taken from a {@link TokenService signed token}
+ * in the "Authorization: Bearer" header, as other services send it, or else from {@link AuthenticationStore},
+ * as a browser sends it. Requests without authenticated user are answered with 401, of other users with 403
+ */
+@Component
+public class AdminAccessInterceptor implements HandlerInterceptor {
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+    private final AuthenticationStore authenticationStore;
+
+    @Autowired
+    public AdminAccessInterceptor(TokenService tokenService, AuthenticationStore authenticationStore) {
+        this.tokenService = tokenService;
+        this.authenticationStore = authenticationStore;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        Optional<UserPrincipal> user = authenticate(request);
+        if (!user.isPresent()) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.sendError(HttpStatus.UNAUTHORIZED.value());
+            return false;
+        }
+        if (user.get().getRole() != Role.ADMIN) {
+            response.sendError(HttpStatus.FORBIDDEN.value());
+            return false;
+        }
+        return true;
+    }
+
+    private Optional<UserPrincipal> authenticate(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return tokenService.verify(authorization.substring(BEARER.length()).trim());
+        }
+        return authenticationStore.load(request);
+    }
+}
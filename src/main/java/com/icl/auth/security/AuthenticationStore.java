@@ -0,0 +1,18 @@
+package com.icl.auth.security;
+
+import com.icl.auth.model.User;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Optional;
+
+/**
+ * Keeps authenticated user between requests
+ */
+public interface AuthenticationStore {
+    void store(User user, HttpServletRequest request, HttpServletResponse response);
+
+    Optional<UserPrincipal> load(HttpServletRequest request);
+
+    void clear(HttpServletRequest request, HttpServletResponse response);
+}
@@ -0,0 +1,41 @@
+package com.icl.auth.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks BCrypt strength for the current host. Each strength step doubles hashing time, so verification time
+ * is measured once at the minimum strength and extrapolated to the strength closest to the target
+ */
+public final class BCryptStrengthCalibrator {
+    private static final String SAMPLE_PASSWORD = "calibration!";
+    private static final int MEASUREMENTS = 3;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * @param targetVerificationTime desired duration of a single password verification
+     * @param minStrength            lowest acceptable strength, measurement is done with it
+     * @param maxStrength            highest acceptable strength
+     * @return strength, which verification time is closest to the target within the bounds
+     */
+    public static int calibrate(Duration targetVerificationTime, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        String hash = encoder.encode(SAMPLE_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASUREMENTS; i++) {
+            long started = System.nanoTime();
+            encoder.matches(SAMPLE_PASSWORD, hash);
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        return strengthFor(targetVerificationTime, Duration.ofNanos(best), minStrength, maxStrength);
+    }
+
+    static int strengthFor(Duration target, Duration measuredAtMinStrength, int minStrength, int maxStrength) {
+        double ratio = (double) target.toNanos() / Math.max(1, measuredAtMinStrength.toNanos());
+        int steps = ratio <= 1 ? 0 : (int) Math.round(Math.log(ratio) / Math.log(2));
+        return Math.max(minStrength, Math.min(maxStrength, minStrength + steps));
+    }
+}
@@ -0,0 +1,162 @@
+package com.icl.auth.security;
+
+import com.icl.auth.exception.HashingCapacityExceededException;
+import com.icl.auth.exception.MalformedCredentialsException;
+import com.icl.auth.metrics.AuthMetrics;
+import com.icl.auth.model.User;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Checks login and password against constraints every stored user satisfies, so login attempts, which can not
+ * succeed, are rejected without a database lookup and a password hash verification. Checks are ordered from
+ * the cheapest one, password pattern is matched last and only for input within the length limits.
+ * <p>
+ * When auth.credentials.uniform-timing is enabled, rejection is reported after the mean time of password
+ * verification, so the response does not tell it apart from a wrong password. The delay is waited on a timer
+ * thread, no hash is computed for it. Delayed rejections are bounded like password verifications, when too many
+ * of them are waiting, rejection fails at once with {@link HashingCapacityExceededException}
+ */
+@Component
+public class CredentialShapeValidator {
+    /**
+     * Length of login column
+     */
+    static final int MAX_LOGIN_LENGTH = 255;
+    private static final Pattern PASSWORD_PATTERN = Pattern.compile(User.PASSWORD_PATTERN);
+    private static final String MALFORMED_CREDENTIALS = "malformed credentials";
+
+    private final AuthMetrics authMetrics;
+    private final boolean uniformTiming;
+    private final long defaultDelayNanos;
+    private final int maxDelayedRejections;
+    private final long retryAfterSeconds;
+    private final ScheduledExecutorService timer;
+    private final Set<CompletableFuture<?>> delayedRejections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger delayedRejectionCount = new AtomicInteger();
+
+    /**
+     * @param maxDelayedRejections maximum number of rejections waiting for their delay
+     * @param retryAfterSeconds    time, after which a client rejected for capacity may retry, the same as
+     *                             for a saturated hashing pool
+     */
+    @Autowired
+    public CredentialShapeValidator(AuthMetrics authMetrics,
+                                    @Value("${auth.credentials.uniform-timing:true}") boolean uniformTiming,
+                                    @Value("${auth.password.target-verification-time:250ms}") Duration defaultDelay,
+                                    @Value("${auth.credentials.max-delayed-rejections:10000}") int maxDelayedRejections,
+                                    @Value("${auth.hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.authMetrics = authMetrics;
+        this.uniformTiming = uniformTiming;
+        this.defaultDelayNanos = defaultDelay.toNanos();
+        this.maxDelayedRejections = maxDelayedRejections;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "credential-rejection");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param login    login as given by client
+     * @param password raw password as given by client
+     * @return false, if no user can have such login and password
+     */
+    public boolean isPossible(String login, String password) {
+        return login != null
+                && login.length() <= MAX_LOGIN_LENGTH
+                && !login.trim().isEmpty()
+                && password != null
+                && password.length() >= User.MIN_PASSWORD_LENGTH
+                && password.length() <= User.MAX_PASSWORD_BYTES
+                && utf8Length(password) <= User.MAX_PASSWORD_BYTES
+                && PASSWORD_PATTERN.matcher(password).matches();
+    }
+
+    /**
+     * @return future completed exceptionally with {@link MalformedCredentialsException}, after the mean
+     * password verification time, when uniform timing is enabled, at once otherwise
+     * @throws HashingCapacityExceededException, when max-delayed-rejections are already waiting
+     */
+    public <T> CompletableFuture<T> reject() {
+        CompletableFuture<T> rejected = new CompletableFuture<>();
+        MalformedCredentialsException failure = MalformedCredentialsException.stackless(MALFORMED_CREDENTIALS);
+        if (!uniformTiming) {
+            rejected.completeExceptionally(failure);
+            return rejected;
+        }
+        if (delayedRejectionCount.incrementAndGet() > maxDelayedRejections) {
+            delayedRejectionCount.decrementAndGet();
+            throw new HashingCapacityExceededException(retryAfterSeconds);
+        }
+        delayedRejections.add(rejected);
+        try {
+            timer.schedule(() -> complete(rejected, failure), delayNanos(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            complete(rejected, failure);
+        }
+        return rejected;
+    }
+
+    /**
+     * Stops the timer and completes waiting rejections at once
+     */
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        for (CompletableFuture<?> rejected : delayedRejections) {
+            complete(rejected, MalformedCredentialsException.stackless(MALFORMED_CREDENTIALS));
+        }
+    }
+
+    private void complete(CompletableFuture<?> rejected, MalformedCredentialsException failure) {
+        if (delayedRejections.remove(rejected)) {
+            delayedRejectionCount.decrementAndGet();
+        }
+        rejected.completeExceptionally(failure);
+    }
+
+    private long delayNanos() {
+        Timer verificationTimer = authMetrics.verificationTimer();
+        return verificationTimer.count() > 0
+                ? (long) verificationTimer.mean(TimeUnit.NANOSECONDS)
+                : defaultDelayNanos;
+    }
+
+    /**
+     * @return number of bytes of UTF-8 encoding of given string, which is computed without encoding it
+     */
+    static int utf8Length(CharSequence string) {
+        int length = 0;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < string.length()
+                    && Character.isLowSurrogate(string.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
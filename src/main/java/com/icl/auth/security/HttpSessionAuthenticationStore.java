@@ -0,0 +1,49 @@
+package com.icl.auth.security;
+
+import com.icl.auth.model.User;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.util.Optional;
+
+/**
+ * Keeps authenticated user in {@link HttpSession} under "user" attribute as {@link UserPrincipal}, so replicated
+ * or persisted sessions serialize a few fields instead of the entity with its password hash
+ */
+@Component
+@ConditionalOnProperty(name = "auth.session.mode", havingValue = "http-session", matchIfMissing = true)
+public class HttpSessionAuthenticationStore implements AuthenticationStore {
+    static final String USER_ATTRIBUTE = "user";
+
+    @Override
+    public void store(User user, HttpServletRequest request, HttpServletResponse response) {
+        request.getSession().setAttribute(USER_ATTRIBUTE, UserPrincipal.from(user));
+    }
+
+    @Override
+    public Optional<UserPrincipal> load(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return Optional.empty();
+        }
+        Object user = session.getAttribute(USER_ATTRIBUTE);
+        if (user instanceof User) {
+            // session persisted before principal was stored, it is replaced on first access
+            UserPrincipal principal = UserPrincipal.from((User) user);
+            session.setAttribute(USER_ATTRIBUTE, principal);
+            return Optional.of(principal);
+        }
+        return Optional.ofNullable((UserPrincipal) user);
+    }
+
+    @Override
+    public void clear(HttpServletRequest request, HttpServletResponse response) {
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.removeAttribute(USER_ATTRIBUTE);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.icl.auth.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Store, which shares revocations between application contexts of one JVM joined to the same
+ * auth.invalidation.channel, like {@link com.icl.auth.invalidation.InProcessInvalidationBus}. Nodes running
+ * in separate processes need {@link JdbcTokenRevocationStore}
+ */
+@Component
+@ConditionalOnProperty(name = "auth.invalidation.mode", havingValue = "in-process", matchIfMissing = true)
+public class InProcessTokenRevocationStore extends AbstractTokenRevocationStore {
+    private static final Map<String, Set<InProcessTokenRevocationStore>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+
+    @Autowired
+    public InProcessTokenRevocationStore(@Value("${auth.invalidation.channel:users}") String channel) {
+        this(channel, Clock.systemUTC());
+    }
+
+    public InProcessTokenRevocationStore(String channel, Clock clock) {
+        super(clock);
+        this.channel = channel;
+        CHANNELS.computeIfAbsent(channel, name -> ConcurrentHashMap.newKeySet()).add(this);
+    }
+
+    @Override
+    public void revoke(String token, long expiresAt) {
+        for (InProcessTokenRevocationStore store : CHANNELS.getOrDefault(channel, ConcurrentHashMap.newKeySet())) {
+            store.remember(token, expiresAt);
+        }
+    }
+
+    /**
+     * Leaves the channel, so closed context gets no more revocations
+     */
+    @PreDestroy
+    public void close() {
+        CHANNELS.computeIfPresent(channel, (name, stores) -> {
+            stores.remove(this);
+            return stores.isEmpty() ? null : stores;
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package com.icl.auth.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Store for nodes in separate processes, which share the database. Revocations are appended to revoked_token
+ * table, which every node polls, so another node rejects a revoked token within one poll interval. Rows are kept
+ * until their tokens expire, unlike rows of {@link com.icl.auth.invalidation.JdbcInvalidationBus}, so a starting
+ * node loads all revocations, which are still in force. A row, whose insert commits after a row with greater
+ * sequence number was already polled, is picked up by the reload following every cleanup
+ */
+@Component
+@ConditionalOnProperty(name = "auth.invalidation.mode", havingValue = "jdbc")
+public class JdbcTokenRevocationStore extends AbstractTokenRevocationStore {
+    private static final Logger log = LoggerFactory.getLogger(JdbcTokenRevocationStore.class);
+    private static final String CREATE_TABLE = "create table if not exists revoked_token (" +
+            "seq bigserial primary key, token varchar(2048) not null, expires_at bigint not null)";
+    private static final String INSERT_TOKEN = "insert into revoked_token (token, expires_at) values (?, ?)";
+    private static final String SELECT_TOKENS = "select seq, token, expires_at from revoked_token " +
+            "where seq > ? and expires_at > ? order by seq limit ?";
+    private static final String DELETE_EXPIRED = "delete from revoked_token where expires_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final int pollBatchSize;
+    private volatile long lastSeq;
+
+    @Autowired
+    public JdbcTokenRevocationStore(JdbcTemplate jdbcTemplate,
+                                    @Value("${auth.invalidation.jdbc.poll-batch-size:1000}") int pollBatchSize) {
+        this(jdbcTemplate, pollBatchSize, Clock.systemUTC());
+    }
+
+    public JdbcTokenRevocationStore(JdbcTemplate jdbcTemplate, int pollBatchSize, Clock clock) {
+        super(clock);
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.pollBatchSize = pollBatchSize;
+    }
+
+    /**
+     * Creates the table, when it does not exist, and loads revocations of tokens, which have not expired yet
+     */
+    @PostConstruct
+    public void init() {
+        jdbcTemplate.execute(CREATE_TABLE);
+        load(0);
+    }
+
+    /**
+     * Token is rejected by this node, even if the row is not written, but then the failure is thrown,
+     * as other nodes would keep accepting the token until it expires
+     */
+    @Override
+    public void revoke(String token, long expiresAt) {
+        remember(token, expiresAt);
+        jdbcTemplate.update(INSERT_TOKEN, token, expiresAt);
+    }
+
+    /**
+     * Remembers tokens revoked since the previous poll, including those revoked by this node
+     */
+    @Scheduled(fixedDelayString = "${auth.invalidation.jdbc.poll-interval-ms:500}")
+    public void poll() {
+        try {
+            load(lastSeq);
+        } catch (RuntimeException e) {
+            log.warn("token revocation poll failed", e);
+        }
+    }
+
+    /**
+     * Deletes rows of expired tokens and reloads the rest, so no revocation missed by polls stays missed
+     */
+    @Scheduled(fixedDelayString = "${auth.invalidation.jdbc.cleanup-interval-ms:60000}")
+    public void deleteExpired() {
+        try {
+            jdbcTemplate.update(DELETE_EXPIRED, clock.instant().getEpochSecond());
+            load(0);
+        } catch (RuntimeException e) {
+            log.warn("failed to delete expired token revocations", e);
+        }
+    }
+
+    /**
+     * Remembers revocations of tokens, which have not expired yet, with sequence number greater than fromSeq
+     */
+    private void load(long fromSeq) {
+        long seq = fromSeq;
+        List<Long> rows;
+        do {
+            rows = jdbcTemplate.query(SELECT_TOKENS, (rs, rowNum) -> {
+                remember(rs.getString("token"), rs.getLong("expires_at"));
+                return rs.getLong("seq");
+            }, seq, clock.instant().getEpochSecond(), pollBatchSize);
+            if (!rows.isEmpty()) {
+                seq = rows.get(rows.size() - 1);
+            }
+        } while (rows.size() == pollBatchSize);
+        lastSeq = Math.max(lastSeq, seq);
+    }
+}
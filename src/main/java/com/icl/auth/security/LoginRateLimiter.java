@@ -0,0 +1,129 @@
+package com.icl.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.icl.auth.exception.RateLimitExceededException;
+import com.icl.auth.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits login attempts per login and per client IP with token buckets. Every bucket is a single
+ * {@link AtomicLong} updated by compare-and-set (generic cell rate algorithm), buckets are kept in
+ * a bounded cache and evicted, when key has been idle for a while
+ */
+@Component
+@ConditionalOnProperty(name = "auth.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class LoginRateLimiter {
+    private final Buckets loginBuckets;
+    private final Buckets ipBuckets;
+    private final Counter loginRejections;
+    private final Counter ipRejections;
+
+    @Autowired
+    public LoginRateLimiter(@Value("${auth.rate-limit.login.capacity:10}") int loginCapacity,
+                            @Value("${auth.rate-limit.login.refill-period:6s}") Duration loginRefillPeriod,
+                            @Value("${auth.rate-limit.ip.capacity:100}") int ipCapacity,
+                            @Value("${auth.rate-limit.ip.refill-period:100ms}") Duration ipRefillPeriod,
+                            @Value("${auth.rate-limit.max-keys:100000}") long maxKeys,
+                            @Value("${auth.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+                            MeterRegistry meterRegistry) {
+        this(loginCapacity, loginRefillPeriod, ipCapacity, ipRefillPeriod, maxKeys, idleTimeout, meterRegistry,
+                System::nanoTime);
+    }
+
+    LoginRateLimiter(int loginCapacity, Duration loginRefillPeriod, int ipCapacity, Duration ipRefillPeriod,
+                     long maxKeys, Duration idleTimeout, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.loginBuckets = new Buckets(loginCapacity, loginRefillPeriod, maxKeys, idleTimeout, nanoTime);
+        this.ipBuckets = new Buckets(ipCapacity, ipRefillPeriod, maxKeys, idleTimeout, nanoTime);
+        this.loginRejections = Counter.builder("auth.rate-limit.rejected")
+                .tag("key", "login")
+                .description("Login attempts rejected by rate limiter")
+                .register(meterRegistry);
+        this.ipRejections = Counter.builder("auth.rate-limit.rejected")
+                .tag("key", "ip")
+                .description("Login attempts rejected by rate limiter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a token from bucket of client IP, then from bucket of login, logins differing only in case share it
+     *
+     * @param login    login, which is attempted, may be null
+     * @param clientIp address of client, may be null
+     * @throws RateLimitExceededException, when either bucket is empty
+     */
+    public void acquire(String login, String clientIp) {
+        if (clientIp != null) {
+            long waitNanos = ipBuckets.tryAcquire(clientIp);
+            if (waitNanos > 0) {
+                ipRejections.increment();
+                throw new RateLimitExceededException(toRetryAfterSeconds(waitNanos));
+            }
+        }
+        if (login != null) {
+            long waitNanos = loginBuckets.tryAcquire(User.normalizeLogin(login));
+            if (waitNanos > 0) {
+                loginRejections.increment();
+                throw new RateLimitExceededException(toRetryAfterSeconds(waitNanos));
+            }
+        }
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * Token buckets by key. Bucket holds theoretical arrival time of the next request: every acquired token
+     * moves it one refill period forward, request is rejected, when it would move further than
+     * capacity periods ahead of now
+     */
+    static class Buckets {
+        private final long refillPeriodNanos;
+        private final long burstNanos;
+        private final LongSupplier nanoTime;
+        private final Cache<String, AtomicLong> buckets;
+
+        Buckets(int capacity, Duration refillPeriod, long maxKeys, Duration idleTimeout, LongSupplier nanoTime) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("capacity must be positive");
+            }
+            this.refillPeriodNanos = refillPeriod.toNanos();
+            this.burstNanos = refillPeriodNanos * capacity;
+            this.nanoTime = nanoTime;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(idleTimeout)
+                    .build();
+        }
+
+        /**
+         * @param key bucket key
+         * @return 0, if token is acquired, otherwise nanoseconds until next token is available
+         */
+        long tryAcquire(String key) {
+            long now = nanoTime.getAsLong();
+            AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+            while (true) {
+                long arrival = bucket.get();
+                long next = Math.max(arrival - now, 0) + refillPeriodNanos;
+                if (next > burstNanos) {
+                    return next - burstNanos;
+                }
+                if (bucket.compareAndSet(arrival, now + next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
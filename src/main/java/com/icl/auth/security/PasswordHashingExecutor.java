@@ -0,0 +1,31 @@
+package com.icl.auth.security;
+
+import com.icl.auth.concurrent.BoundedExecutor;
+import com.icl.auth.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pool, which computes and verifies password hashes, so that request threads are not blocked by BCrypt
+ */
+@Component
+public class PasswordHashingExecutor extends BoundedExecutor {
+    private final long retryAfterSeconds;
+
+    @Autowired
+    public PasswordHashingExecutor(@Value("${auth.hashing.pool-size:0}") int poolSize,
+                                   @Value("${auth.hashing.queue-capacity:256}") int queueCapacity,
+                                   @Value("${auth.hashing.retry-after-seconds:1}") long retryAfterSeconds,
+                                   MeterRegistry meterRegistry) {
+        super(poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors(), queueCapacity,
+                "password-hashing", "auth.hashing", meterRegistry);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    protected RuntimeException rejected() {
+        return new HashingCapacityExceededException(retryAfterSeconds);
+    }
+}
@@ -0,0 +1,75 @@
+package com.icl.auth.security;
+
+import com.icl.auth.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Keeps authenticated user in a cookie with a {@link TokenService signed token}, so no state is held on server
+ * except tokens revoked by logout
+ */
+@Component
+@ConditionalOnProperty(name = "auth.session.mode", havingValue = "token")
+public class TokenAuthenticationStore implements AuthenticationStore {
+    private final TokenService tokenService;
+    private final String cookieName;
+    private final boolean secureCookie;
+
+    @Autowired
+    public TokenAuthenticationStore(TokenService tokenService,
+                                    @Value("${auth.token.cookie-name:AUTH_TOKEN}") String cookieName,
+                                    @Value("${auth.token.cookie-secure:false}") boolean secureCookie) {
+        this.tokenService = tokenService;
+        this.cookieName = cookieName;
+        this.secureCookie = secureCookie;
+    }
+
+    @Override
+    public void store(User user, HttpServletRequest request, HttpServletResponse response) {
+        String token = tokenService.issue(UserPrincipal.from(user));
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(token, tokenService.getTimeToLive()).toString());
+    }
+
+    @Override
+    public Optional<UserPrincipal> load(HttpServletRequest request) {
+        return findToken(request).flatMap(tokenService::verify);
+    }
+
+    @Override
+    public void clear(HttpServletRequest request, HttpServletResponse response) {
+        findToken(request).ifPresent(tokenService::revoke);
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie("", Duration.ZERO).toString());
+    }
+
+    private Optional<String> findToken(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (cookieName.equals(cookie.getName())) {
+                    return Optional.of(cookie.getValue());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private ResponseCookie cookie(String value, Duration maxAge) {
+        return ResponseCookie.from(cookieName, value)
+                .httpOnly(true)
+                .secure(secureCookie)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(maxAge)
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.icl.auth.security;
+
+/**
+ * Tokens revoked before their expiry, shared by the nodes joined with auth.invalidation.mode, so a token revoked
+ * on one node is rejected by all of them. A revocation is kept until the token expires and is never evicted
+ * earlier, so memory is bounded by the number of tokens revoked within one token time to live
+ */
+public interface TokenRevocationStore {
+
+    /**
+     * Rejects token on this node at once and on other nodes asynchronously
+     *
+     * @param token     revoked token
+     * @param expiresAt expiry of token in epoch seconds
+     */
+    void revoke(String token, long expiresAt);
+
+    /**
+     * @param token verified token
+     * @return true, if token was revoked on this or another node, answered from memory of this node
+     */
+    boolean isRevoked(String token);
+}
@@ -0,0 +1,219 @@
+package com.icl.auth.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies compact HMAC-SHA256 signed tokens of form {@code base64url(payload).base64url(signature)}.
+ * Payload is binary: version, user id, expiry in epoch seconds, date of birth in epoch days, role ordinal and
+ * login in UTF-8. Verification needs neither server-side state nor database, except for the tokens revoked before
+ * their expiry, which {@link TokenRevocationStore} keeps in memory of every node, and works on per-thread buffers,
+ * allocating only the resulting principal
+ */
+@Component
+public class TokenService {
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte VERSION = 1;
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int ENCODED_SIGNATURE_LENGTH = 43;
+    private static final int HEADER_LENGTH = 1 + Long.BYTES + Long.BYTES + Integer.BYTES + 1;
+    private static final int MAX_TOKEN_LENGTH = 2048;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final Role[] ROLES = Role.values();
+    private static final int[] BASE64_URL = new int[128];
+
+    static {
+        Arrays.fill(BASE64_URL, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_URL[alphabet.charAt(i)] = i;
+        }
+    }
+
+    private final SecretKeySpec key;
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final TokenRevocationStore revocationStore;
+    private final ThreadLocal<Buffers> buffers;
+
+    @Autowired
+    public TokenService(@Value("${auth.token.secret:}") String secret,
+                        @Value("${auth.token.ttl:1h}") Duration timeToLive,
+                        TokenRevocationStore revocationStore) {
+        this(secretKey(secret), timeToLive, revocationStore, Clock.systemUTC());
+    }
+
+    public TokenService(byte[] secret, Duration timeToLive, TokenRevocationStore revocationStore, Clock clock) {
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        this.revocationStore = revocationStore;
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(key));
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * @param principal authenticated user
+     * @return signed token, valid for configured time to live
+     */
+    public String issue(UserPrincipal principal) {
+        byte[] login = principal.getLogin().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(HEADER_LENGTH + login.length)
+                .put(VERSION)
+                .putLong(principal.getId())
+                .putLong(clock.instant().plus(timeToLive).getEpochSecond())
+                .putInt(principal.getDateOfBirth() == null ? NO_DATE : (int) principal.getDateOfBirth().toEpochDay())
+                .put(principal.getRole() == null ? -1 : (byte) principal.getRole().ordinal())
+                .put(login);
+        String encodedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(payload.array());
+        byte[] signature = buffers.get().mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+        return encodedPayload + '.' + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    /**
+     * @param token token issued by {@link #issue(UserPrincipal)}
+     * @return principal from token, or empty if token is malformed, forged, expired or revoked
+     */
+    public Optional<UserPrincipal> verify(String token) {
+        if (token == null || token.length() > MAX_TOKEN_LENGTH) {
+            return Optional.empty();
+        }
+        int payloadLength = token.length() - ENCODED_SIGNATURE_LENGTH - 1;
+        if (payloadLength <= 0 || token.charAt(payloadLength) != '.') {
+            return Optional.empty();
+        }
+
+        Buffers buf = buffers.get();
+        for (int i = 0; i < payloadLength; i++) {
+            buf.text[i] = (byte) token.charAt(i);
+        }
+        buf.mac.update(buf.text, 0, payloadLength);
+        try {
+            buf.mac.doFinal(buf.expected, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        if (decode(token, payloadLength + 1, token.length(), buf.actual) != SIGNATURE_LENGTH
+                || !constantTimeEquals(buf.expected, buf.actual)) {
+            return Optional.empty();
+        }
+
+        int length = decode(token, 0, payloadLength, buf.payload);
+        if (length <= HEADER_LENGTH || buf.payload[0] != VERSION) {
+            return Optional.empty();
+        }
+        ByteBuffer payload = ByteBuffer.wrap(buf.payload, 1, length - 1);
+        long id = payload.getLong();
+        long expiresAt = payload.getLong();
+        int dateOfBirth = payload.getInt();
+        byte role = payload.get();
+        if (expiresAt <= clock.instant().getEpochSecond() || revocationStore.isRevoked(token)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new UserPrincipal(id,
+                new String(buf.payload, HEADER_LENGTH, length - HEADER_LENGTH, StandardCharsets.UTF_8),
+                dateOfBirth == NO_DATE ? null : LocalDate.ofEpochDay(dateOfBirth),
+                role < 0 || role >= ROLES.length ? null : ROLES[role]));
+    }
+
+    /**
+     * Makes valid token invalid before its expiry on every node. Revoked tokens are remembered only until
+     * they expire
+     *
+     * @param token token issued by {@link #issue(UserPrincipal)}
+     */
+    public void revoke(String token) {
+        if (!verify(token).isPresent()) {
+            return;
+        }
+        Buffers buf = buffers.get();
+        decode(token, 0, token.length() - ENCODED_SIGNATURE_LENGTH - 1, buf.payload);
+        revocationStore.revoke(token, ByteBuffer.wrap(buf.payload, 1 + Long.BYTES, Long.BYTES).getLong());
+    }
+
+    /**
+     * Decodes unpadded base64url characters of source between from and to into target
+     *
+     * @return number of decoded bytes, or -1 if input is not valid base64url or does not fit into target
+     */
+    private static int decode(String source, int from, int to, byte[] target) {
+        int length = to - from;
+        if (length % 4 == 1 || length / 4 * 3 + Math.max(0, length % 4 - 1) > target.length) {
+            return -1;
+        }
+        int position = 0;
+        int bits = 0;
+        int bitCount = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? BASE64_URL[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = bits << 6 | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                target[position++] = (byte) (bits >> bitCount);
+            }
+        }
+        return position;
+    }
+
+    private static boolean constantTimeEquals(byte[] a, byte[] b) {
+        int result = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            result |= a[i] ^ b[i];
+        }
+        return result == 0;
+    }
+
+    private static byte[] secretKey(String secret) {
+        if (secret == null || secret.isEmpty()) {
+            log.warn("auth.token.secret is not set, generated random key, tokens will not be accepted by other nodes");
+            byte[] generated = new byte[32];
+            new SecureRandom().nextBytes(generated);
+            return generated;
+        }
+        return Base64.getDecoder().decode(secret);
+    }
+
+    private static final class Buffers {
+        private final Mac mac;
+        private final byte[] text = new byte[MAX_TOKEN_LENGTH];
+        private final byte[] payload = new byte[MAX_TOKEN_LENGTH];
+        private final byte[] expected = new byte[SIGNATURE_LENGTH];
+        private final byte[] actual = new byte[SIGNATURE_LENGTH];
+
+        private Buffers(SecretKeySpec key) {
+            try {
+                mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
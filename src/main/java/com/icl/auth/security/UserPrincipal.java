@@ -0,0 +1,84 @@
+package com.icl.auth.security;
+
+import com.icl.auth.model.User;
+import lombok.Value;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Authenticated user as seen by the web layer, carries only what views need and no password hash.
+ * It is immutable, so it is safe to keep in session shared by concurrent requests. It is serialized
+ * by {@link SerializedForm} as a few primitives, without class descriptors of its fields
+ */
+@Value
+public class UserPrincipal implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    Long id;
+    String login;
+    LocalDate dateOfBirth;
+    Role role;
+
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(user.getId(), user.getLogin(), user.getDateOfBirth(), user.getRole());
+    }
+
+    private Object writeReplace() {
+        return new SerializedForm(this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("serialized form is required");
+    }
+
+    /**
+     * Serialized form of {@link UserPrincipal}, it is public, as {@link Externalizable} requires
+     * public no-arg constructor
+     */
+    public static final class SerializedForm implements Externalizable {
+        private static final long serialVersionUID = 1L;
+        private static final long NO_ID = Long.MIN_VALUE;
+        private static final long NO_DATE = Long.MIN_VALUE;
+        private static final Role[] ROLES = Role.values();
+
+        private UserPrincipal principal;
+
+        public SerializedForm() {
+        }
+
+        private SerializedForm(UserPrincipal principal) {
+            this.principal = principal;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeLong(principal.id == null ? NO_ID : principal.id);
+            out.writeUTF(principal.login == null ? "" : principal.login);
+            out.writeLong(principal.dateOfBirth == null ? NO_DATE : principal.dateOfBirth.toEpochDay());
+            out.writeByte(principal.role == null ? -1 : principal.role.ordinal());
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException {
+            long id = in.readLong();
+            String login = in.readUTF();
+            long dateOfBirth = in.readLong();
+            int role = in.readByte();
+            principal = new UserPrincipal(id == NO_ID ? null : id,
+                    login.isEmpty() ? null : login,
+                    dateOfBirth == NO_DATE ? null : LocalDate.ofEpochDay(dateOfBirth),
+                    role < 0 || role >= ROLES.length ? null : ROLES[role]);
+        }
+
+        private Object readResolve() {
+            return principal;
+        }
+    }
+}
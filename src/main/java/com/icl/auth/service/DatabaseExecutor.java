@@ -0,0 +1,34 @@
+package com.icl.auth.service;
+
+import com.icl.auth.concurrent.BoundedExecutor;
+import com.icl.auth.exception.DatabaseCapacityExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pool, which runs repository calls in "async" execution mode. It has as many threads as the connection pool
+ * has connections, so no thread waits for a connection and excess work waits in a bounded queue instead
+ * of holding request threads
+ */
+@Component
+@ConditionalOnProperty(name = "auth.execution.mode", havingValue = "async")
+public class DatabaseExecutor extends BoundedExecutor {
+    private final long retryAfterSeconds;
+
+    @Autowired
+    public DatabaseExecutor(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                            @Value("${auth.execution.database-queue-capacity:1000}") int queueCapacity,
+                            @Value("${auth.execution.retry-after-seconds:1}") long retryAfterSeconds,
+                            MeterRegistry meterRegistry) {
+        super(poolSize, queueCapacity, "database", "auth.database", meterRegistry);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    protected RuntimeException rejected() {
+        return new DatabaseCapacityExceededException(retryAfterSeconds);
+    }
+}
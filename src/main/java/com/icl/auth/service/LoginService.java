@@ -0,0 +1,10 @@
+package com.icl.auth.service;
+
+import com.icl.auth.model.User;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface LoginService {
+    CompletableFuture<Optional<User>> loginAsync(String login, String password, String clientAddress);
+}
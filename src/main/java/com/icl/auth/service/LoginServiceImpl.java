@@ -0,0 +1,75 @@
+package com.icl.auth.service;
+
+import com.icl.auth.exception.RateLimitExceededException;
+import com.icl.auth.exception.UserNotFoundException;
+import com.icl.auth.exception.WrongPasswordException;
+import com.icl.auth.metrics.AuthMetrics;
+import com.icl.auth.model.User;
+import com.icl.auth.security.CredentialShapeValidator;
+import com.icl.auth.security.LoginRateLimiter;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Login attempt as it is made by every controller: limited by {@link LoginRateLimiter}, rejected
+ * by {@link CredentialShapeValidator} without lookup, when no user can have such credentials, otherwise
+ * authorized by {@link UserAuthorizationService}. Time and outcome are recorded by {@link AuthMetrics}
+ */
+@Service
+public class LoginServiceImpl implements LoginService {
+    private final UserAuthorizationService userAuthorizationService;
+    private final AuthMetrics authMetrics;
+    private final LoginRateLimiter loginRateLimiter;
+    private final CredentialShapeValidator credentialShapeValidator;
+
+    @Autowired
+    public LoginServiceImpl(UserAuthorizationService userAuthorizationService, AuthMetrics authMetrics,
+                            ObjectProvider<LoginRateLimiter> loginRateLimiter,
+                            CredentialShapeValidator credentialShapeValidator) {
+        this.userAuthorizationService = userAuthorizationService;
+        this.authMetrics = authMetrics;
+        this.loginRateLimiter = loginRateLimiter.getIfAvailable();
+        this.credentialShapeValidator = credentialShapeValidator;
+    }
+
+    /**
+     * @param login         user's login
+     * @param password      user's password
+     * @param clientAddress address of client, attempts are limited per address as well as per login
+     * @return future with authorized user, completed exceptionally with {@link UserNotFoundException} or
+     * {@link WrongPasswordException}, it completes after the outcome is recorded
+     * @throws RateLimitExceededException, when too many attempts are made for login or from client address
+     */
+    @Override
+    public CompletableFuture<Optional<User>> loginAsync(String login, String password, String clientAddress) {
+        Timer.Sample sample = authMetrics.start();
+        CompletableFuture<Optional<User>> authorized;
+        try {
+            if (loginRateLimiter != null) {
+                loginRateLimiter.acquire(login, clientAddress);
+            }
+            authorized = credentialShapeValidator.isPossible(login, password)
+                    ? userAuthorizationService.authorizeAsync(login, password)
+                    : credentialShapeValidator.reject();
+        } catch (RuntimeException e) {
+            authMetrics.recordLogin(sample, e);
+            throw e;
+        }
+        CompletableFuture<Optional<User>> recorded = new CompletableFuture<>();
+        authorized.handle((user, e) -> {
+            authMetrics.recordLogin(sample, e);
+            if (e != null) {
+                recorded.completeExceptionally(e);
+            } else {
+                recorded.complete(user);
+            }
+            return null;
+        });
+        return recorded;
+    }
+}
@@ -0,0 +1,202 @@
+package com.icl.auth.service;
+
+import com.icl.auth.exception.LoginAlreadyTakenException;
+import com.icl.auth.exception.RegistrationCapacityExceededException;
+import com.icl.auth.model.User;
+import com.icl.auth.repository.UserInserts;
+import com.icl.auth.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single writer, which inserts new users in batches, when auth.registration.mode is "batched". Users are put
+ * on a bounded queue and inserted by {@link UserRepository#insertAll(List)}, when batch-size users are queued
+ * or max-delay has passed since the first of them was queued.
+ * <p>
+ * Guarantees: future of every accepted user is completed only after its transaction is committed, so success
+ * is never reported for a user, which is not stored. Users queued, but not written yet, are kept in memory only
+ * and are lost, if the process dies, their callers get no response. On shutdown the writer stops waiting
+ * for batches to fill and writes queued users before it stops, users queued while it stops fail with
+ * {@link RegistrationCapacityExceededException}, so no future is left incomplete. Users are inserted in the order they are queued,
+ * of users with the same login queued together the first one is inserted and the rest fail with
+ * {@link LoginAlreadyTakenException}
+ */
+@Component
+@ConditionalOnProperty(name = "auth.registration.mode", havingValue = "batched")
+public class RegistrationWriter {
+    private static final Logger log = LoggerFactory.getLogger(RegistrationWriter.class);
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final UserRepository userRepository;
+    private final BlockingQueue<PendingUser> queue;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final long retryAfterSeconds;
+    private final Thread writer;
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+    private final Counter rejectedCounter;
+    private volatile boolean running = true;
+
+    @Autowired
+    public RegistrationWriter(UserRepository userRepository,
+                              @Value("${auth.registration.queue-capacity:10000}") int queueCapacity,
+                              @Value("${auth.registration.batch-size:100}") int batchSize,
+                              @Value("${auth.registration.max-delay:10ms}") Duration maxDelay,
+                              @Value("${auth.registration.retry-after-seconds:1}") long retryAfterSeconds,
+                              MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.batchSizes = DistributionSummary.builder("auth.registration.batch.size")
+                .description("Users inserted by one transaction")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("auth.registration.flush")
+                .description("Time to write a batch of users")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.registration.rejected")
+                .description("Users rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("auth.registration.queue.size", queue, BlockingQueue::size)
+                .description("Users waiting to be written")
+                .register(meterRegistry);
+        this.writer = new Thread(this::run, "registration-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues new user to be inserted with next batch
+     *
+     * @param user validated user with encoded password
+     * @return future with inserted user, completed exceptionally with {@link LoginAlreadyTakenException},
+     * when login is taken
+     * @throws RegistrationCapacityExceededException, when the queue is full or writer is stopped
+     */
+    public CompletableFuture<User> submit(User user) {
+        PendingUser pending = new PendingUser(user);
+        if (!running || !queue.offer(pending)) {
+            rejectedCounter.increment();
+            throw new RegistrationCapacityExceededException(retryAfterSeconds);
+        }
+        // the writer may have seen an empty queue and stopped after running was checked above
+        if (!running && queue.remove(pending)) {
+            rejectedCounter.increment();
+            throw new RegistrationCapacityExceededException(retryAfterSeconds);
+        }
+        return pending.result;
+    }
+
+    /**
+     * Stops accepting users and waits for queued ones to be written
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private void run() {
+        try {
+            write();
+        } finally {
+            failQueued();
+        }
+    }
+
+    private void write() {
+        List<PendingUser> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingUser first = queue.poll(IDLE_POLL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize && running) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingUser next = queue.poll(Math.min(remaining, IDLE_POLL_NANOS), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                flushTimer.record(() -> flush(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("registration batch failed", e);
+                batch.forEach(pending -> pending.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Fails users, which were queued after the writer saw the queue empty for the last time
+     */
+    private void failQueued() {
+        for (PendingUser pending; (pending = queue.poll()) != null; ) {
+            rejectedCounter.increment();
+            pending.result.completeExceptionally(new RegistrationCapacityExceededException(retryAfterSeconds));
+        }
+    }
+
+    private void flush(List<PendingUser> batch) {
+        List<PendingUser> unique = new ArrayList<>(batch.size());
+        Set<String> logins = new HashSet<>();
+        for (PendingUser pending : batch) {
+            if (logins.add(User.normalizeLogin(pending.user.getLogin()))) {
+                unique.add(pending);
+            } else {
+                pending.result.completeExceptionally(new LoginAlreadyTakenException(pending.user.getLogin()));
+            }
+        }
+        batchSizes.record(unique.size());
+
+        UserInserts.insertAll(userRepository, unique, pending -> pending.user,
+                pending -> pending.result.complete(pending.user),
+                (pending, e) -> pending.result.completeExceptionally(UserInserts.isUniqueViolation(e)
+                        ? new LoginAlreadyTakenException(pending.user.getLogin())
+                        : e));
+    }
+
+    private static final class PendingUser {
+        private final User user;
+        private final CompletableFuture<User> result = new CompletableFuture<>();
+
+        private PendingUser(User user) {
+            this.user = user;
+        }
+    }
+}
@@ -5,8 +5,11 @@ import com.icl.auth.exception.WrongPasswordException;
 import com.icl.auth.model.User;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface UserAuthorizationService {
     User save(User user);
+    CompletableFuture<User> saveAsync(User user);
     Optional<User> authorize(String login, String password) throws UserNotFoundException, WrongPasswordException;
+    CompletableFuture<Optional<User>> authorizeAsync(String login, String password);
 }
@@ -1,45 +1,189 @@
 package com.icl.auth.service;
 
+import com.icl.auth.audit.AuditEvent;
+import com.icl.auth.audit.AuditLog;
+import com.icl.auth.concurrent.Futures;
+import com.icl.auth.exception.CapacityExceededException;
+import com.icl.auth.exception.HashingCapacityExceededException;
+import com.icl.auth.exception.LoginAlreadyTakenException;
 import com.icl.auth.exception.UserNotFoundException;
 import com.icl.auth.exception.WrongPasswordException;
+import com.icl.auth.metrics.AuthMetrics;
 import com.icl.auth.model.User;
+import com.icl.auth.repository.UserInserts;
 import com.icl.auth.repository.UserRepository;
+import com.icl.auth.security.PasswordHashingExecutor;
 import com.icl.auth.security.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class UserAuthorizationServiceImpl implements UserAuthorizationService {
+    private static final Logger log = LoggerFactory.getLogger(UserAuthorizationServiceImpl.class);
+    private static final String USER_NOT_FOUND = "user not found";
+    private static final String WRONG_PASSWORD = "wrong password";
+
     private UserRepository userRepository;
     private PasswordEncoder passwordEncoder;
+    private PasswordHashingExecutor hashingExecutor;
+    private Validator validator;
+    private AuthMetrics authMetrics;
+    private DatabaseExecutor databaseExecutor;
+    private RegistrationWriter registrationWriter;
+    private AuditLog auditLog;
 
+    /**
+     * @param databaseExecutor   available in "async" execution mode, then repository calls of async methods
+     *                           are made on it, otherwise they are made on the calling thread
+     * @param registrationWriter available in "batched" registration mode, then new users of
+     *                           {@link #saveAsync(User)} are inserted by it
+     * @param auditLog           available when auth.audit.enabled is "true", then outcome of every authorization
+     *                           and save is appended to it
+     */
     @Autowired
-    public UserAuthorizationServiceImpl(UserRepository userRepository, PasswordEncoder encoder) {
+    public UserAuthorizationServiceImpl(UserRepository userRepository, PasswordEncoder encoder,
+                                        PasswordHashingExecutor hashingExecutor, Validator validator,
+                                        AuthMetrics authMetrics, ObjectProvider<DatabaseExecutor> databaseExecutor,
+                                        ObjectProvider<RegistrationWriter> registrationWriter,
+                                        ObjectProvider<AuditLog> auditLog) {
         this.userRepository = userRepository;
         this.passwordEncoder = encoder;
+        this.hashingExecutor = hashingExecutor;
+        this.validator = validator;
+        this.authMetrics = authMetrics;
+        this.databaseExecutor = databaseExecutor.getIfAvailable();
+        this.registrationWriter = registrationWriter.getIfAvailable();
+        this.auditLog = auditLog.getIfAvailable();
     }
 
     /**
-     * Saves or updates user to database, if user is new, then method sets default {@link Role} USER and
-     * encodes password via {@link PasswordEncoder} passwordEncoder
+     * Saves or updates user to database, if user is new, then method sets default {@link Role} USER,
+     * validates user with raw password and encodes password via {@link PasswordEncoder} passwordEncoder
      *
      * @param user object, which has to be saved into database
      * @return updated or newly created user
+     * @throws ConstraintViolationException, when new user is not valid
+     * @throws LoginAlreadyTakenException, when login is taken
      */
     @Override
     public User save(User user) {
+        AuditEvent.Type type = writeType(user);
+        try {
+            User saved = persist(user);
+            audit(type, user.getLogin(), saved, null);
+            return saved;
+        } catch (RuntimeException e) {
+            audit(type, user.getLogin(), null, e);
+            throw e;
+        }
+    }
+
+    private User persist(User user) {
         if (user.isNew()) {
-            user.setRole(Role.USER);
+            validateNew(user);
             user.setPassword(passwordEncoder.encode(user.getPassword()));
         }
-        return userRepository.save(user);
+        return store(user);
     }
 
     /**
-     * Method verifies if user is present in database and password is correct
+     * Saves user, a login taken by another user fails with {@link LoginAlreadyTakenException} instead of
+     * the unique constraint violation of the database
+     */
+    private User store(User user) {
+        try {
+            return userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            if (UserInserts.isUniqueViolation(e)) {
+                throw new LoginAlreadyTakenException(user.getLogin());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Same as {@link #save(User)}. In "async" execution mode password is encoded on {@link PasswordHashingExecutor}
+     * and user is saved on {@link DatabaseExecutor}, so the calling thread is released at once,
+     * otherwise user is saved on the calling thread. In "batched" registration mode new user is validated
+     * and its password is encoded the same way, then it is inserted with a batch by {@link RegistrationWriter}
+     *
+     * @param user object, which has to be saved into database
+     * @return future with updated or newly created user, completed exceptionally with
+     * {@link LoginAlreadyTakenException}, when login is taken
+     * @throws ConstraintViolationException, when new user is not valid
+     * @throws CapacityExceededException, when hashing pool, database pool or registration queue is saturated
+     */
+    @Override
+    public CompletableFuture<User> saveAsync(User user) {
+        AuditEvent.Type type = writeType(user);
+        CompletableFuture<User> saved;
+        try {
+            saved = persistAsync(user);
+        } catch (RuntimeException e) {
+            audit(type, user.getLogin(), null, e);
+            throw e;
+        }
+        if (auditLog != null) {
+            saved.whenComplete((result, e) -> audit(type, user.getLogin(), result, e));
+        }
+        return saved;
+    }
+
+    private CompletableFuture<User> persistAsync(User user) {
+        if (registrationWriter != null && user.isNew()) {
+            return register(user);
+        }
+        if (databaseExecutor == null) {
+            return CompletableFuture.completedFuture(persist(user));
+        }
+        if (!user.isNew()) {
+            return databaseExecutor.submit(() -> store(user));
+        }
+        validateNew(user);
+        String rawPassword = user.getPassword();
+        return Futures.compose(hashingExecutor.submit(() -> passwordEncoder.encode(rawPassword)), hash -> {
+            user.setPassword(hash);
+            return databaseExecutor.submit(() -> store(user));
+        });
+    }
+
+    private CompletableFuture<User> register(User user) {
+        validateNew(user);
+        if (databaseExecutor == null) {
+            user.setPassword(passwordEncoder.encode(user.getPassword()));
+            return registrationWriter.submit(user);
+        }
+        String rawPassword = user.getPassword();
+        return Futures.compose(hashingExecutor.submit(() -> passwordEncoder.encode(rawPassword)), hash -> {
+            user.setPassword(hash);
+            return registrationWriter.submit(user);
+        });
+    }
+
+    private void validateNew(User user) {
+        user.setRole(Role.USER);
+        Set<ConstraintViolation<User>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+
+    /**
+     * Method verifies if user is present in database and password is correct. Failures are reported with
+     * stackless exceptions with constant messages, which do not depend on login
      *
      * @param login    - user's login
      * @param password - user's password
@@ -50,16 +194,137 @@ public class UserAuthorizationServiceImpl implements UserAuthorizationService {
     @Override
     public Optional<User> authorize(String login, String password)
             throws UserNotFoundException, WrongPasswordException {
-        Optional<User> user = userRepository.findByLogin(login);
+        try {
+            Optional<User> user = verify(login, password);
+            audit(AuditEvent.Type.LOGIN, login, user.get(), null);
+            return user;
+        } catch (UserNotFoundException | WrongPasswordException | RuntimeException e) {
+            audit(AuditEvent.Type.LOGIN, login, null, e);
+            throw e;
+        }
+    }
+
+    private Optional<User> verify(String login, String password)
+            throws UserNotFoundException, WrongPasswordException {
+        Optional<User> user = authMetrics.lookupTimer().record(() -> userRepository.findByLogin(login));
 
         if (!user.isPresent()) {
-            throw new UserNotFoundException(String.format("user with login %s not found", login));
+            throw UserNotFoundException.stackless(USER_NOT_FOUND);
         }
 
-        if (!passwordEncoder.matches(password, user.get().getPassword())) {
-            throw new WrongPasswordException(String.format("wrong password for login %s", login));
+        if (!matches(password, user.get().getPassword())) {
+            throw WrongPasswordException.stackless(WRONG_PASSWORD);
         }
 
+        upgradeEncodingIfNeeded(user.get(), password);
+        return user;
+    }
+
+    /**
+     * Same as {@link #authorize(String, String)}, but password is verified on {@link PasswordHashingExecutor},
+     * so the calling thread is released while the hash is computed. In "async" execution mode user is also
+     * looked up on {@link DatabaseExecutor}
+     *
+     * @param login    - user's login
+     * @param password - user's password
+     * @return future with user with given login and password, completed exceptionally with
+     * {@link UserNotFoundException} or {@link WrongPasswordException}
+     * @throws CapacityExceededException, when hashing or database pool is saturated
+     */
+    @Override
+    public CompletableFuture<Optional<User>> authorizeAsync(String login, String password) {
+        CompletableFuture<Optional<User>> user;
+        try {
+            user = databaseExecutor == null
+                    ? verifyAsync(lookup(login), password)
+                    : Futures.compose(databaseExecutor.submit(() -> lookup(login)),
+                            found -> verifyAsync(found, password));
+        } catch (RuntimeException e) {
+            audit(AuditEvent.Type.LOGIN, login, null, e);
+            throw e;
+        }
+        if (auditLog != null) {
+            user.whenComplete((result, e) ->
+                    audit(AuditEvent.Type.LOGIN, login, result == null ? null : result.orElse(null), e));
+        }
         return user;
     }
+
+    private Optional<User> lookup(String login) {
+        return authMetrics.lookupTimer().record(() -> userRepository.findByLogin(login));
+    }
+
+    private CompletableFuture<Optional<User>> verifyAsync(Optional<User> user, String password) {
+        if (!user.isPresent()) {
+            CompletableFuture<Optional<User>> notFound = new CompletableFuture<>();
+            notFound.completeExceptionally(UserNotFoundException.stackless(USER_NOT_FOUND));
+            return notFound;
+        }
+
+        String passwordHash = user.get().getPassword();
+        return hashingExecutor.submit(() -> {
+            if (!matches(password, passwordHash)) {
+                throw WrongPasswordException.stackless(WRONG_PASSWORD);
+            }
+            upgradeEncodingIfNeeded(user.get(), password);
+            return user;
+        });
+    }
+
+    private static AuditEvent.Type writeType(User user) {
+        return user.isNew() ? AuditEvent.Type.REGISTRATION : AuditEvent.Type.UPDATE;
+    }
+
+    /**
+     * Appends outcome of an attempt to {@link AuditLog}, when it is enabled
+     *
+     * @param user    user, which was authorized or saved, null when the attempt failed
+     * @param failure exception the attempt failed with, or null if it succeeded
+     */
+    private void audit(AuditEvent.Type type, String login, User user, Throwable failure) {
+        if (auditLog != null) {
+            auditLog.append(type, AuthMetrics.outcome(failure), login, user == null ? null : user.getId());
+        }
+    }
+
+    /**
+     * Verifies password against stored hash, time spent is recorded by {@link AuthMetrics#verificationTimer()}
+     */
+    private boolean matches(String password, String passwordHash) {
+        long started = System.nanoTime();
+        try {
+            return passwordEncoder.matches(password, passwordHash);
+        } finally {
+            authMetrics.verificationTimer().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Re-hashes verified password, if its stored hash is legacy or weaker than current encoder produces.
+     * New hash is computed and written on {@link PasswordHashingExecutor} after login response is completed,
+     * only if stored hash has not been changed meanwhile. Upgrade is skipped when hashing pool is saturated,
+     * it will be retried on next login
+     *
+     * @param user     user, which password has just been verified
+     * @param password verified raw password
+     */
+    private void upgradeEncodingIfNeeded(User user, String password) {
+        String currentHash = user.getPassword();
+        if (!passwordEncoder.upgradeEncoding(currentHash)) {
+            return;
+        }
+        Long id = user.getId();
+        try {
+            hashingExecutor.submit(() -> {
+                String upgradedHash = passwordEncoder.encode(password);
+                return userRepository.updatePassword(id, currentHash, upgradedHash);
+            }).whenComplete((updated, e) -> {
+                if (e != null) {
+                    log.warn("password hash upgrade failed for user with id={}", id, e);
+                }
+            });
+        } catch (HashingCapacityExceededException e) {
+            log.debug("password hash upgrade postponed for user with id={}", id);
+        }
+    }
 }
@@ -0,0 +1,12 @@
+package com.icl.auth.service;
+
+import com.icl.auth.dto.UserPage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface UserExportService {
+    UserPage findPage(Long afterId, int limit);
+
+    long exportNdjson(OutputStream output) throws IOException;
+}
@@ -0,0 +1,75 @@
+package com.icl.auth.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.icl.auth.dto.UserPage;
+import com.icl.auth.dto.UserResponse;
+import com.icl.auth.model.User;
+import com.icl.auth.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class UserExportServiceImpl implements UserExportService {
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxPageSize;
+    private final int fetchSize;
+
+    @Autowired
+    public UserExportServiceImpl(UserRepository userRepository, ObjectMapper objectMapper,
+                                 @Value("${auth.export.max-page-size:1000}") int maxPageSize,
+                                 @Value("${auth.export.fetch-size:500}") int fetchSize) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.maxPageSize = maxPageSize;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @param afterId id of the last user of previous page, null for the first page
+     * @param limit   requested page size, capped by configured maximum
+     * @return users ordered by id, as {@link UserResponse}, and cursor for the next page
+     */
+    @Override
+    public UserPage findPage(Long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        List<User> users = userRepository.findPage(afterId, pageSize);
+        Long nextAfter = users.size() < pageSize ? null : users.get(users.size() - 1).getId();
+        return new UserPage(users.stream().map(UserResponse::from).collect(Collectors.toList()), nextAfter);
+    }
+
+    /**
+     * Writes all users as newline delimited JSON of {@link UserResponse}, one user per line, reading them from database as a stream
+     *
+     * @param output target stream, it is not closed
+     * @return number of written users
+     */
+    @Override
+    public long exportNdjson(OutputStream output) throws IOException {
+        long count = 0;
+        try (Stream<User> users = userRepository.streamAll(fetchSize);
+             SequenceWriter writer = objectMapper.writerFor(UserResponse.class)
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .withRootValueSeparator("\n")
+                     .writeValues(output)) {
+            for (Iterator<User> iterator = users.iterator(); iterator.hasNext(); count++) {
+                writer.write(UserResponse.from(iterator.next()));
+            }
+        }
+        if (count > 0) {
+            output.write('\n');
+        }
+        output.flush();
+        return count;
+    }
+}
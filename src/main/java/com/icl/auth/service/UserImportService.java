@@ -0,0 +1,12 @@
+package com.icl.auth.service;
+
+import com.icl.auth.dto.ImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface UserImportService {
+    ImportReport importCsv(InputStream input) throws IOException;
+
+    ImportReport importJson(InputStream input) throws IOException;
+}
@@ -0,0 +1,299 @@
+package com.icl.auth.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.icl.auth.dto.ImportReport;
+import com.icl.auth.dto.UserImportRow;
+import com.icl.auth.model.User;
+import com.icl.auth.repository.UserInserts;
+import com.icl.auth.repository.UserRepository;
+import com.icl.auth.security.Role;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+@Service
+public class UserImportServiceImpl implements UserImportService {
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool hashingPool;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    @Autowired
+    public UserImportServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                                 Validator validator, ObjectMapper objectMapper,
+                                 @Value("${auth.import.hashing-parallelism:0}") int hashingParallelism,
+                                 @Value("${auth.import.batch-size:1000}") int batchSize,
+                                 @Value("${auth.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.hashingPool = new ForkJoinPool(hashingParallelism > 0
+                ? hashingParallelism : Runtime.getRuntime().availableProcessors());
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Imports users from CSV with columns login, password and dateOfBirth (ISO date), optionally preceded by
+     * header line. Fields may be quoted with double quotes
+     *
+     * @param input CSV content in UTF-8, read as a stream
+     * @return numbers of imported and failed rows with reasons of failures
+     */
+    @Override
+    public ImportReport importCsv(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            return importRows(new CsvRows(reader));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Imports users from JSON array or newline delimited JSON objects with fields login, password and dateOfBirth
+     *
+     * @param input JSON content, read as a stream
+     * @return numbers of imported and failed rows with reasons of failures
+     */
+    @Override
+    public ImportReport importJson(InputStream input) throws IOException {
+        MappingIterator<UserImportRow> values = objectMapper.readerFor(UserImportRow.class).readValues(input);
+        try {
+            return importRows(new JsonRows(values));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Validates and hashes rows in chunks of batch size, passwords of a chunk are hashed in parallel,
+     * then chunk is inserted with a single JDBC batch. If batch fails, its rows are inserted one by one,
+     * so only rows conflicting with existing data are reported as failed
+     */
+    private ImportReport importRows(Iterator<Row> rows) {
+        ImportReport report = new ImportReport();
+        List<Row> chunk = new ArrayList<>(batchSize);
+        while (rows.hasNext()) {
+            Row row = rows.next();
+            if (row.error != null) {
+                fail(report, row, row.error);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == batchSize) {
+                importChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+        return report;
+    }
+
+    private void importChunk(List<Row> chunk, ImportReport report) {
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            row.user = new User(row.data.getLogin(), row.data.getPassword(), row.data.getDateOfBirth(), Role.USER);
+            Set<ConstraintViolation<User>> violations = validator.validate(row.user);
+            if (violations.isEmpty()) {
+                valid.add(row);
+            } else {
+                fail(report, row, violations.stream()
+                        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        hashingPool.submit(() -> valid.parallelStream()
+                .forEach(row -> row.user.setPassword(passwordEncoder.encode(row.user.getPassword()))))
+                .join();
+
+        UserInserts.insertAll(userRepository, valid, row -> row.user,
+                row -> report.setImported(report.getImported() + 1),
+                (row, e) -> fail(report, row, UserInserts.isUniqueViolation(e)
+                        ? "login already exists" : e.getMostSpecificCause().getMessage()));
+    }
+
+    private void fail(ImportReport report, Row row, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new ImportReport.RowError(row.number,
+                    row.data == null ? null : row.data.getLogin(), message));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    private static final class Row {
+        private final long number;
+        private final UserImportRow data;
+        private final String error;
+        private User user;
+
+        private Row(long number, UserImportRow data, String error) {
+            this.number = number;
+            this.data = data;
+            this.error = error;
+        }
+    }
+
+    private static final class JsonRows implements Iterator<Row> {
+        private final MappingIterator<UserImportRow> values;
+        private long number;
+        private String malformed;
+        private boolean finished;
+
+        private JsonRows(MappingIterator<UserImportRow> values) {
+            this.values = values;
+        }
+
+        /**
+         * Values, which can not be bound to {@link UserImportRow}, are skipped by the iterator, but malformed JSON
+         * can not be read any further, so it is reported as the last row
+         */
+        @Override
+        public boolean hasNext() {
+            if (finished) {
+                return false;
+            }
+            try {
+                return malformed != null || values.hasNextValue();
+            } catch (IOException e) {
+                malformed = e instanceof JsonProcessingException
+                        ? ((JsonProcessingException) e).getOriginalMessage() : e.getMessage();
+                return true;
+            }
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            number++;
+            if (malformed != null) {
+                finished = true;
+                return new Row(number, null, malformed);
+            }
+            try {
+                return new Row(number, values.nextValue(), null);
+            } catch (JsonProcessingException e) {
+                return new Row(number, null, e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final class CsvRows implements Iterator<Row> {
+        private final BufferedReader reader;
+        private long number;
+        private String line;
+
+        private CsvRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (line == null) {
+                    line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                    number++;
+                    if (line.trim().isEmpty() || number == 1 && line.startsWith("login,")) {
+                        line = null;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String current = line;
+            line = null;
+            List<String> fields = split(current);
+            if (fields.size() != 3) {
+                return new Row(number, null, "expected 3 fields: login, password, dateOfBirth");
+            }
+            UserImportRow data = new UserImportRow(fields.get(0), fields.get(1), null);
+            try {
+                data.setDateOfBirth(LocalDate.parse(fields.get(2).trim()));
+            } catch (DateTimeParseException e) {
+                return new Row(number, data, "dateOfBirth must be ISO date");
+            }
+            return new Row(number, data, null);
+        }
+
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>(3);
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.icl.auth.view;
+
+import org.springframework.web.servlet.View;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+
+/**
+ * View of a page without per-user data. It is rendered by the delegate on first request, then the same bytes
+ * are written for every request and the model is ignored. Links are rendered through the first response,
+ * so session ids must not be encoded into URLs
+ */
+public class PrerenderedView implements View {
+    private final View delegate;
+    private volatile Page page;
+
+    public PrerenderedView(View delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getContentType() {
+        return delegate.getContentType();
+    }
+
+    @Override
+    public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response)
+            throws Exception {
+        Page rendered = page;
+        if (rendered == null) {
+            ContentCachingResponseWrapper buffer = new ContentCachingResponseWrapper(response);
+            delegate.render(model, request, buffer);
+            rendered = new Page(buffer.getContentType(), buffer.getContentAsByteArray());
+            page = rendered;
+        }
+        response.setContentType(rendered.contentType);
+        response.setContentLength(rendered.body.length);
+        response.getOutputStream().write(rendered.body);
+    }
+
+    private static final class Page {
+        private final String contentType;
+        private final byte[] body;
+
+        private Page(String contentType, byte[] body) {
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.icl.auth.view;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.thymeleaf.spring5.view.ThymeleafViewResolver;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves views listed in auth.views.prerendered to {@link PrerenderedView}s of Thymeleaf views, other names
+ * are left to {@link ThymeleafViewResolver}. It is enabled only while templates are cached, so edited
+ * templates are rendered again during development
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "spring.thymeleaf.cache", havingValue = "true", matchIfMissing = true)
+public class PrerenderedViewResolver implements ViewResolver, Ordered {
+    private final ThymeleafViewResolver thymeleafViewResolver;
+    private final Set<String> viewNames;
+    private final Map<String, View> views = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PrerenderedViewResolver(ThymeleafViewResolver thymeleafViewResolver,
+                                   @Value("${auth.views.prerendered:login,register}") List<String> viewNames) {
+        this.thymeleafViewResolver = thymeleafViewResolver;
+        this.viewNames = new HashSet<>(viewNames);
+    }
+
+    @Override
+    public View resolveViewName(String viewName, Locale locale) throws Exception {
+        if (!viewNames.contains(viewName)) {
+            return null;
+        }
+        View view = views.get(viewName);
+        if (view == null) {
+            View delegate = thymeleafViewResolver.resolveViewName(viewName, locale);
+            if (delegate == null) {
+                return null;
+            }
+            view = views.computeIfAbsent(viewName, name -> new PrerenderedView(delegate));
+        }
+        return view;
+    }
+
+    /**
+     * @return order before {@link ThymeleafViewResolver}
+     */
+    @Override
+    public int getOrder() {
+        return thymeleafViewResolver.getOrder() - 1;
+    }
+}
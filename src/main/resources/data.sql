@@ -1,14 +1,18 @@
-delete from user;
-insert into user (id, date_of_birth, login, password, role) values
+delete from "user";
+insert into "user" (id, date_of_birth, login, login_normalized, password, role, version) values
 (1,
 '1111-11-17',
 'john',
+'john',
 '$2a$10$QJbsbRnB.L2zGZtZonh3mOHG6UC7XXTwxK5eodJmTD9kgcxLpkXVK',
-'USER');
+'USER',
+0);
 
-insert into user (id, date_of_birth, login, password, role) values
+insert into "user" (id, date_of_birth, login, login_normalized, password, role, version) values
 (2,
 '2000-11-17',
 'q',
+'q',
 '$2a$10$mxQGryHoBtLHmfE/4vuq7.fiUcKEg6vvKITnBEd50/LPL6XjVUaEe',
-'USER');
+'USER',
+0);
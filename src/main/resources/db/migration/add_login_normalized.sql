@@ -0,0 +1,19 @@
+-- Adds login_normalized column, users are looked up by it since logins became case-insensitive.
+-- Written for PostgreSQL, it is not run by the application and has to be applied before deployment,
+-- outside of a transaction because of CREATE INDEX CONCURRENTLY.
+-- lower() matches User.normalizeLogin for logins in ASCII.
+
+ALTER TABLE "user" ADD COLUMN login_normalized VARCHAR(255);
+
+UPDATE "user" SET login_normalized = lower(login) WHERE login_normalized IS NULL;
+
+-- Fails, if there are logins differing only in case, such users have to be merged or renamed first:
+-- SELECT lower(login), count(*) FROM "user" GROUP BY lower(login) HAVING count(*) > 1;
+CREATE UNIQUE INDEX CONCURRENTLY uk_user_login_normalized ON "user" (login_normalized);
+
+ALTER TABLE "user" ADD CONSTRAINT uk_user_login_normalized UNIQUE USING INDEX uk_user_login_normalized;
+
+ALTER TABLE "user" ALTER COLUMN login_normalized SET NOT NULL;
+
+-- Unique constraint on login is implied by the new one, it is no longer declared by the entity
+-- and may be dropped by name: ALTER TABLE "user" DROP CONSTRAINT <name of unique constraint on login>;
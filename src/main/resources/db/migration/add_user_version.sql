@@ -0,0 +1,5 @@
+-- Adds version column, users are updated optimistically by id and version.
+-- Written for PostgreSQL, it is not run by the application and has to be applied before deployment.
+-- Since PostgreSQL 11 adding a column with a constant default does not rewrite the table.
+
+ALTER TABLE "user" ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
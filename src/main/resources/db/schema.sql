@@ -0,0 +1,12 @@
+-- Schema of embedded database for "fast-start" profile, Hibernate validates it instead of creating it
+create table if not exists "user" (
+    id bigserial not null,
+    date_of_birth date,
+    login varchar(255),
+    login_normalized varchar(255) not null,
+    password varchar(255),
+    role varchar(255),
+    version bigint not null,
+    primary key (id),
+    constraint uk_user_login_normalized unique (login_normalized)
+);
@@ -0,0 +1,96 @@
+package com.icl.auth;
+
+import com.icl.auth.model.User;
+import com.icl.auth.repository.UserRepository;
+import com.icl.auth.security.Role;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts two nodes in one JVM sharing a database and checks, that users written by one node are not served
+ * stale from caches of the other one
+ */
+public class CacheCoherenceTest {
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    @ParameterizedTest
+    @ValueSource(strings = {"in-process", "jdbc"})
+    public void writesOfOneNodeShouldBeVisibleOnTheOther(String mode) throws Exception {
+        try (ConfigurableApplicationContext nodeA = start(mode, true);
+             ConfigurableApplicationContext nodeB = start(mode, false)) {
+            UserRepository a = nodeA.getBean(UserRepository.class);
+            UserRepository b = nodeB.getBean(UserRepository.class);
+
+            assertThat(b.findByLogin("john")).isPresent();
+            assertThat(b.findByLogin("newcomer")).isEmpty();
+
+            User john = a.findByLogin("john").orElseThrow(IllegalStateException::new);
+            john.setDateOfBirth(LocalDate.of(1991, 2, 3));
+            a.save(john);
+            await(() -> b.findByLogin("john").map(User::getDateOfBirth)
+                    .filter(LocalDate.of(1991, 2, 3)::equals).isPresent());
+
+            a.save(new User("newcomer", "1w?", LocalDate.of(2000, 1, 1), Role.USER));
+            await(() -> b.findByLogin("newcomer").isPresent());
+
+            a.deleteById(john.getId());
+            await(() -> !b.findByLogin("john").isPresent());
+        }
+    }
+
+    /**
+     * Event is inserted after the commit of the save, while the connection of the committed transaction is still
+     * bound to the thread, so it is visible to other nodes only if it is committed in a transaction of its own
+     */
+    @Test
+    public void jdbcEventShouldBeCommittedAfterTransactionalSave() throws Exception {
+        try (ConfigurableApplicationContext node = start("jdbc", true);
+             Connection connection = DriverManager.getConnection(
+                     "jdbc:h2:mem:coherence-jdbc;DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "")) {
+            UserRepository repository = node.getBean(UserRepository.class);
+
+            repository.save(new User("committed", "1w?", LocalDate.of(2000, 1, 1), Role.USER));
+
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "select count(*) from user_change_event where login = 'committed'");
+                 ResultSet count = statement.executeQuery()) {
+                assertThat(count.next()).isTrue();
+                assertThat(count.getInt(1)).isEqualTo(1);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String mode, boolean createsSchema) {
+        return new SpringApplicationBuilder(AuthorizationService.class).run(
+                "--spring.datasource.url=jdbc:h2:mem:coherence-" + mode + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "--spring.jpa.hibernate.ddl-auto=" + (createsSchema ? "create" : "none"),
+                "--spring.datasource.initialization-mode=" + (createsSchema ? "embedded" : "never"),
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--auth.password.bcrypt-strength=10",
+                "--auth.invalidation.mode=" + mode,
+                "--auth.invalidation.channel=coherence-test",
+                "--auth.invalidation.jdbc.poll-interval-ms=50");
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long started = System.nanoTime();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - started).as("condition is not met in time").isLessThan(TIMEOUT_NANOS);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.icl.auth;
+
+import com.icl.auth.model.User;
+import com.icl.auth.repository.UserRepository;
+import com.icl.auth.security.Role;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs "prod" profile against a real PostgreSQL, only with -Dpostgres.url=jdbc:postgresql://host:port/database,
+ * user and password are set by "postgres.username" and "postgres.password" system properties. Tables are
+ * created and dropped by Hibernate, so the database should be an empty one
+ */
+@EnabledIfSystemProperty(named = "postgres.url", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${postgres.url}",
+        "spring.datasource.username=${postgres.username:postgres}",
+        "spring.datasource.password=${postgres.password:}",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "auth.hashing.pool-size=2"})
+@ActiveProfiles("prod")
+public class PostgreSqlTest {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void usersShouldBeSavedAndFoundInQuotedUserTable() {
+        User saved = userRepository.save(
+                new User("pgsaved", "{bcrypt}hash", LocalDate.of(2000, 1, 1), Role.USER));
+
+        assertThat(userRepository.findByLogin("PGSAVED")).contains(saved);
+        assertThat(userRepository.findAllLogins()).contains("pgsaved");
+    }
+
+    @Test
+    public void usersShouldBeInsertedByNativeStatement() {
+        userRepository.insertAll(Arrays.asList(
+                new User("pginserted1", "{bcrypt}hash", LocalDate.of(2000, 1, 1), Role.USER),
+                new User("pginserted2", "{bcrypt}hash", LocalDate.of(2000, 1, 1), Role.USER)));
+
+        assertThat(userRepository.findByLogin("pginserted1")).isPresent();
+        assertThat(userRepository.findByLogin("pginserted2")).isPresent();
+    }
+}
@@ -0,0 +1,46 @@
+package com.icl.auth;
+
+import com.icl.auth.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts "prod" profile on H2 in place of PostgreSQL
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:prod;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create",
+        "auth.hashing.pool-size=3"})
+@ActiveProfiles("prod")
+public class ProdProfileTest {
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void connectionPoolShouldBeSizedToHashingPool() {
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+        assertThat(hikari.getMaximumPoolSize()).isEqualTo(3);
+        assertThat(hikari.getMinimumIdle()).isEqualTo(3);
+    }
+
+    @Test
+    public void sqlShouldNotBeLoggedAndTestUsersShouldNotBeSeeded() {
+        assertThat(environment.getProperty("spring.jpa.show-sql", Boolean.class)).isFalse();
+        assertThat(userRepository.findAll()).isEmpty();
+    }
+}
@@ -0,0 +1,83 @@
+package com.icl.auth;
+
+import com.icl.auth.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares startup of default and "fast-start" profiles: time until port is open and
+ * time until readiness probe is UP. Timings are logged, only readiness is asserted. "fast-start" opens port
+ * sooner, but is ready later than default profile, its lazy beans are created only after startup
+ */
+public class StartupTimeTest {
+    private static final Logger log = LoggerFactory.getLogger(StartupTimeTest.class);
+    private static final long READINESS_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    /**
+     * Classes are loaded by the first start, so it is not measured
+     */
+    @BeforeAll
+    static void warmUp() throws InterruptedException {
+        start("warmup", "default").close();
+    }
+
+    @Test
+    public void defaultProfileShouldBeReadyWhenStarted() throws InterruptedException {
+        try (ConfigurableApplicationContext context = start("default", "default")) {
+            assertThat(context.getBean(UserRepository.class).findByLogin("john")).isPresent();
+        }
+    }
+
+    @Test
+    public void fastStartProfileShouldBeReadyAfterWarmup() throws InterruptedException {
+        try (ConfigurableApplicationContext context = start("fast-start", "fast-start")) {
+            assertThat(context.getBean(UserRepository.class).findByLogin("john")).isPresent();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String name, String profile) throws InterruptedException {
+        long started = System.nanoTime();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AuthorizationService.class)
+                .profiles(profile)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:startup-" + name + ";MODE=PostgreSQL",
+                        "server.port=0",
+                        "management.health.probes.enabled=true",
+                        "spring.jpa.show-sql=false",
+                        "auth.password.bcrypt-strength=10")
+                .run();
+        long portOpen = System.nanoTime() - started;
+
+        HealthEndpoint healthEndpoint = context.getBean(HealthEndpoint.class);
+        Status readiness = readiness(healthEndpoint);
+        while (!Status.UP.equals(readiness) && System.nanoTime() - started < READINESS_TIMEOUT_NANOS) {
+            Thread.sleep(10);
+            readiness = readiness(healthEndpoint);
+        }
+        long ready = System.nanoTime() - started;
+
+        log.info("{}: port is open in {} ms, ready in {} ms", name,
+                TimeUnit.NANOSECONDS.toMillis(portOpen), TimeUnit.NANOSECONDS.toMillis(ready));
+        if (!Status.UP.equals(readiness)) {
+            context.close();
+        }
+        assertThat(readiness).isEqualTo(Status.UP);
+        return context;
+    }
+
+    private static Status readiness(HealthEndpoint healthEndpoint) {
+        HealthComponent health = healthEndpoint.healthForPath("readiness");
+        return health == null ? Status.UNKNOWN : health.getStatus();
+    }
+}
@@ -0,0 +1,112 @@
+package com.icl.auth.audit;
+
+import com.icl.auth.metrics.AuthMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class AuditLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void directoryShouldBeAbsolute() {
+        assertThatThrownBy(() -> new AuditLog("audit", 16, DataSize.ofMegabytes(1), new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AuditLog("", 16, DataSize.ofMegabytes(1), new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void appendedEventsShouldBeReadBackInOrder() throws Exception {
+        AuditLog log = new AuditLog(directory.toString(), 16, DataSize.ofMegabytes(1), new SimpleMeterRegistry());
+        log.append(AuditEvent.Type.REGISTRATION, AuthMetrics.SUCCESS, "john", 1L);
+        log.append(AuditEvent.Type.LOGIN, AuthMetrics.WRONG_PASSWORD, "jo\"hn\n", null);
+        log.append(AuditEvent.Type.LOGIN, AuthMetrics.SUCCESS, null, 1L);
+        log.shutdown();
+
+        List<AuditEvent> events = read();
+        assertThat(events).extracting(AuditEvent::getType, AuditEvent::getOutcome, AuditEvent::getLogin,
+                AuditEvent::getUserId)
+                .containsExactly(
+                        tuple(AuditEvent.Type.REGISTRATION, "success", "john", 1L),
+                        tuple(AuditEvent.Type.LOGIN, "wrong_password", "jo\"hn\n", null),
+                        tuple(AuditEvent.Type.LOGIN, "success", null, 1L));
+        assertThat(events.get(0).getTimestamp()).isPositive();
+    }
+
+    @Test
+    public void fullSegmentShouldBeRotatedAndRestartShouldStartNextSegment() throws Exception {
+        AuditLog log = new AuditLog(directory.toString(), 1024, DataSize.ofBytes(200), new SimpleMeterRegistry());
+        for (int i = 0; i < 10; i++) {
+            log.append(AuditEvent.Type.LOGIN, AuthMetrics.SUCCESS, "user" + i, (long) i);
+        }
+        log.shutdown();
+        List<Path> segments = segments();
+        assertThat(segments).hasSizeGreaterThan(1);
+        for (Path segment : segments) {
+            assertThat(Files.size(segment)).isLessThanOrEqualTo(200);
+        }
+
+        AuditLog restarted = new AuditLog(directory.toString(), 16, DataSize.ofBytes(200), new SimpleMeterRegistry());
+        restarted.append(AuditEvent.Type.LOGIN, AuthMetrics.SUCCESS, "user10", 10L);
+        restarted.shutdown();
+
+        assertThat(segments()).hasSize(segments.size() + 1);
+        assertThat(read()).extracting(AuditEvent::getUserId)
+                .containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+    }
+
+    @Test
+    public void eventsShouldBeDroppedAndCountedWhenBufferIsFullOrLogIsStopped() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditLog log = new AuditLog(directory.toString(), 4, DataSize.ofMegabytes(1), registry);
+        int appended = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (log.append(AuditEvent.Type.LOGIN, AuthMetrics.SUCCESS, "john", 1L)) {
+                appended++;
+            }
+        }
+        log.shutdown();
+        assertThat(log.append(AuditEvent.Type.LOGIN, AuthMetrics.SUCCESS, "john", 1L)).isFalse();
+
+        double dropped = registry.get("auth.audit.dropped").counter().count();
+        assertThat(dropped).isEqualTo(10_001 - appended);
+        assertThat(registry.get("auth.audit.written").counter().count()).isEqualTo(appended);
+        assertThat(read()).hasSize(appended);
+    }
+
+    @Test
+    public void truncatedLastLineShouldBeSkipped() throws Exception {
+        Files.write(directory.resolve(AuditLog.segmentName(1)),
+                ("{\"ts\":\"2020-01-01T00:00:00Z\",\"type\":\"login\",\"outcome\":\"success\",\"login\":\"john\"}\n"
+                        + "{\"ts\":\"2020-01-01T00:00:01Z\",\"type\":\"lo").getBytes(StandardCharsets.UTF_8));
+
+        assertThat(read()).extracting(AuditEvent::getLogin).containsExactly("john");
+    }
+
+    private List<AuditEvent> read() throws Exception {
+        try (Stream<AuditEvent> events = AuditLogReader.read(directory)) {
+            return events.collect(Collectors.toList());
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+}
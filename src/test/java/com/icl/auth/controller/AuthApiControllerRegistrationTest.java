@@ -0,0 +1,51 @@
+package com.icl.auth.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Registration in "direct" mode against the seeded database, where user "john" exists
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AuthApiControllerRegistrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * In "direct" mode user is saved on the calling thread, so conflict is reported before the request is
+     * started asynchronously
+     */
+    @Test
+    public void registrationWithTakenLoginShouldReturnConflict() throws Exception {
+        mockMvc.perform(register("John"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void registrationWithFreeLoginShouldReturnCreated() throws Exception {
+        MvcResult result = mockMvc.perform(register("direct"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated());
+    }
+
+    private static MockHttpServletRequestBuilder register(String login) {
+        return post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"login\":\"" + login + "\",\"password\":\"secret!\",\"dateOfBirth\":\"2000-01-01\"}");
+    }
+}
@@ -0,0 +1,114 @@
+package com.icl.auth.controller;
+
+import com.icl.auth.exception.WrongPasswordException;
+import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
+import com.icl.auth.service.UserAuthorizationService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AuthApiControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserAuthorizationService userAuthorizationService;
+
+    private final User user = new User("john", "{bcrypt}hash", LocalDate.of(2000, 11, 17), Role.USER);
+
+    {
+        user.setId(1L);
+    }
+
+    @Test
+    public void issuedTokenShouldBeIntrospectedAsActive() throws Exception {
+        when(userAuthorizationService.authorizeAsync("john", "secret!"))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(user)));
+
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"login\":\"john\",\"password\":\"secret!\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(login))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenType", is("Bearer")))
+                .andExpect(jsonPath("$.expiresIn", is(3600)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String token = JsonPath.read(body, "$.token");
+
+        mockMvc.perform(post("/api/auth/introspect")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"token\":\"" + token + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active", is(true)))
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.login", is("john")))
+                .andExpect(jsonPath("$.role", is("USER")));
+    }
+
+    @Test
+    public void forgedTokenShouldBeIntrospectedAsInactive() throws Exception {
+        mockMvc.perform(post("/api/auth/introspect")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"token\":\"forged.token\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active", is(false)))
+                .andExpect(jsonPath("$.login").doesNotExist());
+    }
+
+    @Test
+    public void loginWithWrongPasswordShouldBeForbidden() throws Exception {
+        CompletableFuture<Optional<User>> wrongPassword = new CompletableFuture<>();
+        wrongPassword.completeExceptionally(WrongPasswordException.stackless("wrong password"));
+        when(userAuthorizationService.authorizeAsync("john", "wrong!")).thenReturn(wrongPassword);
+
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"login\":\"john\",\"password\":\"wrong!\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(login))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void registerShouldReturnCreatedUserWithoutPassword() throws Exception {
+        when(userAuthorizationService.saveAsync(any())).thenReturn(CompletableFuture.completedFuture(user));
+
+        MvcResult register = mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"login\":\"john\",\"password\":\"secret!\",\"dateOfBirth\":\"2000-11-17\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(register))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.dateOfBirth", is("2000-11-17")))
+                .andExpect(jsonPath("$.password").doesNotExist());
+    }
+}
@@ -0,0 +1,50 @@
+package com.icl.auth.controller;
+
+import com.icl.auth.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+@SpringBootTest(properties = "auth.registration.mode=batched")
+@AutoConfigureMockMvc
+public class AuthControllerBatchedRegistrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void registeredUserShouldBeStoredBeforeResponse() throws Exception {
+        mockMvc.perform(asyncDispatch(register("batched")))
+                .andExpect(status().isOk())
+                .andExpect(view().name("login"));
+
+        assertThat(userRepository.findByLogin("batched")).isPresent();
+    }
+
+    @Test
+    public void registrationWithTakenLoginShouldReturnConflict() throws Exception {
+        mockMvc.perform(asyncDispatch(register("John")))
+                .andExpect(status().isConflict());
+    }
+
+    private MvcResult register(String login) throws Exception {
+        return mockMvc.perform(post("/register")
+                .param("login", login)
+                .param("password", "secret!")
+                .param("dateOfBirth", "2000-01-01"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+}
@@ -0,0 +1,53 @@
+package com.icl.auth.controller;
+
+import com.icl.auth.model.User;
+import com.icl.auth.service.UserAuthorizationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "auth.rate-limit.login.capacity=2")
+@AutoConfigureMockMvc
+public class AuthControllerRateLimitTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserAuthorizationService userAuthorizationService;
+
+    @Test
+    public void attemptsOverLimitShouldBeRejectedBeforeAuthorization() throws Exception {
+        when(userAuthorizationService.authorizeAsync(anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(Optional.<User>empty()));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/login")
+                    .param("login", "limited")
+                    .param("password", "wrong!"))
+                    .andExpect(request().asyncStarted());
+        }
+        mockMvc.perform(post("/login")
+                .param("login", "limited")
+                .param("password", "wrong!"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+        verify(userAuthorizationService, times(2)).authorizeAsync("limited", "wrong!");
+    }
+}
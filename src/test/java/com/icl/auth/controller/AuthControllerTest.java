@@ -1,8 +1,13 @@
 package com.icl.auth.controller;
 
+import com.icl.auth.exception.HashingCapacityExceededException;
 import com.icl.auth.exception.WrongPasswordException;
+import com.icl.auth.metrics.AuthMetrics;
 import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
+import com.icl.auth.security.UserPrincipal;
 import com.icl.auth.service.UserAuthorizationService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,15 +16,25 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import javax.servlet.http.HttpSession;
+import java.time.LocalDate;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
@@ -32,31 +47,75 @@ public class AuthControllerTest {
     @MockBean
     private UserAuthorizationService userAuthorizationService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     public void ifUserPasswordIsOkReturnOk() throws Exception {
         User user = Mockito.mock(User.class);
-        when(userAuthorizationService.authorize(anyString(), anyString()))
-                .thenReturn(Optional.ofNullable(user));
+        when(userAuthorizationService.authorizeAsync(anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(Optional.ofNullable(user)));
 
-        HttpSession session = mockMvc.perform(post("/login")
+        MvcResult asyncResult = mockMvc.perform(post("/login")
                 .param("login", "q")
-                .param("password", "q"))
+                .param("password", "q1!"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        HttpSession session = mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isOk())
                 .andExpect(view().name("securedPage"))
                 .andReturn()
                 .getRequest()
                 .getSession();
 
-        assertThat(session.getAttribute("user")).isNotNull();
+        assertThat(session.getAttribute("user")).isInstanceOf(UserPrincipal.class);
     }
 
     @Test
     public void ifUserPasswordIsWrongThrowException() throws Exception {
-        when(userAuthorizationService.authorize(anyString(), anyString())).thenThrow(WrongPasswordException.class);
+        CompletableFuture<Optional<User>> wrongPassword = new CompletableFuture<>();
+        wrongPassword.completeExceptionally(new WrongPasswordException());
+        when(userAuthorizationService.authorizeAsync(anyString(), anyString())).thenReturn(wrongPassword);
+
+        MvcResult asyncResult = mockMvc.perform(post("/login")
+                .param("login", "q")
+                .param("password", "123!"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isForbidden())
+                .andExpect(content().string("access denied"));
+    }
+
+    @Test
+    public void malformedPasswordShouldBeRejectedWithoutAuthorization() throws Exception {
+        long before = meterRegistry.timer("auth.login", "outcome", AuthMetrics.MALFORMED).count();
+
+        MvcResult asyncResult = mockMvc.perform(post("/login")
+                .param("login", "q")
+                .param("password", "nopunctuation"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isForbidden())
+                .andExpect(content().string("access denied"));
+
+        verify(userAuthorizationService, never()).authorizeAsync(anyString(), anyString());
+        assertThat(meterRegistry.timer("auth.login", "outcome", AuthMetrics.MALFORMED).count())
+                .isEqualTo(before + 1);
+    }
+
+    @Test
+    public void ifHashingQueueIsFullReturnServiceUnavailable() throws Exception {
+        when(userAuthorizationService.authorizeAsync(anyString(), anyString()))
+                .thenThrow(new HashingCapacityExceededException(3));
         mockMvc.perform(post("/login")
                 .param("login", "q")
-                .param("password", "123"))
-                .andExpect(status().isForbidden());
+                .param("password", "123!"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"));
     }
 
     @Test
@@ -68,8 +127,11 @@ public class AuthControllerTest {
     @Test
     public void registerNewUserShouldReturnView() throws Exception {
         User user = Mockito.mock(User.class);
-        when(userAuthorizationService.save(any())).thenReturn(user);
-        mockMvc.perform(post("/register"))
+        when(userAuthorizationService.saveAsync(any())).thenReturn(CompletableFuture.completedFuture(user));
+        MvcResult asyncResult = mockMvc.perform(post("/register"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(view().name("login"));
     }
 
@@ -90,10 +152,32 @@ public class AuthControllerTest {
     @Test
     public void testMainPage() throws Exception {
         mockMvc.perform(get("/")
-                .sessionAttr("user", Mockito.mock(User.class)))
+                .sessionAttr("user", new UserPrincipal(1L, "john", LocalDate.of(2000, 1, 1), Role.USER)))
                 .andExpect(view().name("securedPage"));
 
         mockMvc.perform(get("/"))
                 .andExpect(view().name("login"));
     }
+
+    @Test
+    public void loginOutcomeIsRecordedAndExposedToPrometheus() throws Exception {
+        CompletableFuture<Optional<User>> wrongPassword = new CompletableFuture<>();
+        wrongPassword.completeExceptionally(new WrongPasswordException());
+        when(userAuthorizationService.authorizeAsync(anyString(), anyString())).thenReturn(wrongPassword);
+        long before = meterRegistry.timer("auth.login", "outcome", AuthMetrics.WRONG_PASSWORD).count();
+
+        MvcResult asyncResult = mockMvc.perform(post("/login")
+                .param("login", "q")
+                .param("password", "123!"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isForbidden());
+
+        assertThat(meterRegistry.timer("auth.login", "outcome", AuthMetrics.WRONG_PASSWORD).count())
+                .isEqualTo(before + 1);
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("auth_login_seconds_bucket{outcome=\"wrong_password\"")));
+    }
 }
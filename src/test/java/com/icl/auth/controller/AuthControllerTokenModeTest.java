@@ -0,0 +1,69 @@
+package com.icl.auth.controller;
+
+import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
+import com.icl.auth.service.UserAuthorizationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.servlet.http.Cookie;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+@SpringBootTest(properties = {
+        "auth.session.mode=token",
+        "auth.token.secret=MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY="})
+@AutoConfigureMockMvc
+public class AuthControllerTokenModeTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserAuthorizationService userAuthorizationService;
+
+    @Test
+    public void loginShouldIssueTokenCookieAcceptedUntilLogout() throws Exception {
+        User user = new User(7L, "john", "hash", LocalDate.of(1990, 1, 1), Role.USER);
+        when(userAuthorizationService.authorizeAsync(anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(user)));
+
+        MvcResult asyncResult = mockMvc.perform(post("/login")
+                .param("login", "john")
+                .param("password", "q1!"))
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(view().name("securedPage"))
+                .andReturn();
+
+        String setCookie = result.getResponse().getHeader("Set-Cookie");
+        assertThat(setCookie).startsWith("AUTH_TOKEN=").contains("HttpOnly");
+        assertThat(result.getRequest().getSession(false)).isNull();
+        Cookie token = new Cookie("AUTH_TOKEN", setCookie.substring("AUTH_TOKEN=".length(), setCookie.indexOf(';')));
+
+        mockMvc.perform(get("/").cookie(token))
+                .andExpect(view().name("securedPage"))
+                .andExpect(model().attribute("user", hasProperty("login", equalTo("john"))));
+
+        mockMvc.perform(get("/logout").cookie(token));
+
+        mockMvc.perform(get("/").cookie(token))
+                .andExpect(view().name("login"));
+    }
+}
@@ -0,0 +1,14 @@
+package com.icl.auth.controller;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "auth.execution.mode=blocking",
+        "server.tomcat.threads.max=20",
+        "auth.rate-limit.enabled=false",
+        "auth.password.bcrypt-strength=8",
+        "auth.hashing.queue-capacity=10000"})
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class BlockingModeLoginLoadTest extends LoginLoadTestSupport {
+}
@@ -0,0 +1,82 @@
+package com.icl.auth.controller;
+
+import com.icl.auth.exception.WrongPasswordException;
+import com.icl.auth.model.User;
+import com.icl.auth.service.UserAuthorizationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Login attempts are limited per client address, which Tomcat takes from X-Forwarded-For, when request comes
+ * from a trusted proxy. Tests run on a random port, so requests come from 127.0.0.1, which is trusted by default
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"auth.rate-limit.ip.capacity=2", "auth.rate-limit.ip.refill-period=1h"})
+public class ForwardedClientAddressTest {
+    static final int TOO_MANY_REQUESTS = 429;
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private UserAuthorizationService userAuthorizationService;
+
+    @BeforeEach
+    public void setUp() {
+        when(userAuthorizationService.authorizeAsync(anyString(), anyString())).thenAnswer(invocation -> {
+            CompletableFuture<Optional<User>> wrongPassword = new CompletableFuture<>();
+            wrongPassword.completeExceptionally(WrongPasswordException.stackless("wrong password"));
+            return wrongPassword;
+        });
+    }
+
+    @Test
+    public void clientsBehindProxyShouldHaveSeparateLimits() throws IOException {
+        for (int i = 0; i < 2; i++) {
+            assertThat(login(port, "first" + i, "203.0.113.1")).isNotEqualTo(TOO_MANY_REQUESTS);
+        }
+        assertThat(login(port, "first", "203.0.113.1")).isEqualTo(TOO_MANY_REQUESTS);
+
+        assertThat(login(port, "second", "203.0.113.2")).isNotEqualTo(TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    public void addressAddedByTrustedProxyShouldBeSkipped() throws IOException {
+        for (int i = 0; i < 2; i++) {
+            assertThat(login(port, "chained" + i, "203.0.113.3, 10.0.0.1")).isNotEqualTo(TOO_MANY_REQUESTS);
+        }
+        assertThat(login(port, "chained", "203.0.113.3")).isEqualTo(TOO_MANY_REQUESTS);
+    }
+
+    static int login(int port, String login, String forwardedFor) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/api/auth/login")
+                .openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setRequestProperty("X-Forwarded-For", forwardedFor);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(("{\"login\":\"" + login + "\",\"password\":\"wrong!\"}").getBytes(StandardCharsets.UTF_8));
+            }
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
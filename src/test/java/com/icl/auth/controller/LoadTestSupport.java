@@ -0,0 +1,106 @@
+package com.icl.auth.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent clients against the application, which subclasses start on a random port. Results are reported
+ * by the logger of the subclass, so they appear in surefire and failsafe output and reports
+ */
+public abstract class LoadTestSupport {
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+
+    @LocalServerPort
+    private int port;
+
+    protected URL url(String path) throws MalformedURLException {
+        return new URL("http://localhost:" + port + path);
+    }
+
+    /**
+     * Releases all clients at once, each client makes its requests one after another and waits for responses
+     *
+     * @param clients  number of concurrent clients
+     * @param requests number of requests of every client
+     * @param request  makes request number of client
+     * @param timeout  maximum time of the whole run
+     * @return nanoseconds from release of clients until the last of them is done
+     */
+    protected static long runClients(int clients, int requests, ClientRequest request, long timeout, TimeUnit unit)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for (int client = 0; client < clients; client++) {
+                int id = client;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < requests; i++) {
+                        request.send(id, i);
+                    }
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            long deadline = started + unit.toNanos(timeout);
+            for (Future<?> future : futures) {
+                future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+            return System.nanoTime() - started;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Posts form, or gets page, when there is no form, response is drained, so connection is reused
+     *
+     * @param url  page
+     * @param form url-encoded form, null for GET
+     * @return status of response
+     */
+    protected static int send(URL url, String form) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        if (form != null) {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(form.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (in != null) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // response is drained, so connection is reused
+            }
+            in.close();
+        }
+        return status;
+    }
+
+    @FunctionalInterface
+    protected interface ClientRequest {
+        void send(int client, int number) throws Exception;
+    }
+}
@@ -0,0 +1,65 @@
+package com.icl.auth.controller;
+
+import com.icl.auth.model.User;
+import com.icl.auth.service.UserAuthorizationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent POST /login against the application on a random port with few request threads, run only with
+ * -Dloadtest=true. Number of clients and requests per client are set by "loadtest.clients" and
+ * "loadtest.requests" system properties. Subclasses choose execution mode with the same 20 request threads,
+ * results are logged for comparison
+ */
+public abstract class LoginLoadTestSupport extends LoadTestSupport {
+    private static final String LOGIN = "loadtest";
+    private static final String PASSWORD = "secret!";
+
+    @Value("${auth.execution.mode}")
+    private String executionMode;
+
+    @Autowired
+    private UserAuthorizationService userAuthorizationService;
+
+    @Test
+    public void concurrentLogins() throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 200);
+        int requests = Integer.getInteger("loadtest.requests", 20);
+        userAuthorizationService.save(new User(LOGIN, PASSWORD, LocalDate.of(2000, 1, 1), null));
+        URL url = url("/login");
+        String form = "login=" + LOGIN + "&password=" + PASSWORD;
+
+        long[] latencies = new long[clients * requests];
+        AtomicInteger failures = new AtomicInteger();
+        long elapsed = runClients(clients, requests, (client, number) -> {
+            long started = System.nanoTime();
+            if (send(url, form) != HttpURLConnection.HTTP_OK) {
+                failures.incrementAndGet();
+            }
+            latencies[client * requests + number] = System.nanoTime() - started;
+        }, 10, TimeUnit.MINUTES);
+
+        Arrays.sort(latencies);
+        log.info(String.format("execution mode=%s clients=%d requests=%d throughput=%.1f/s p50=%dms p99=%dms "
+                        + "max=%dms failures=%d",
+                executionMode, clients, latencies.length,
+                latencies.length / (elapsed / (double) TimeUnit.SECONDS.toNanos(1)),
+                millis(latencies, 0.50), millis(latencies, 0.99),
+                TimeUnit.NANOSECONDS.toMillis(latencies[latencies.length - 1]), failures.get()));
+        assertThat(failures.get()).isZero();
+    }
+
+    private static long millis(long[] sorted, double percentile) {
+        return TimeUnit.NANOSECONDS.toMillis(sorted[(int) Math.ceil(percentile * sorted.length) - 1]);
+    }
+}
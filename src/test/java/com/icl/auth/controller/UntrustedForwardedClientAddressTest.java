@@ -0,0 +1,52 @@
+package com.icl.auth.controller;
+
+import com.icl.auth.exception.WrongPasswordException;
+import com.icl.auth.model.User;
+import com.icl.auth.service.UserAuthorizationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static com.icl.auth.controller.ForwardedClientAddressTest.TOO_MANY_REQUESTS;
+import static com.icl.auth.controller.ForwardedClientAddressTest.login;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * X-Forwarded-For of a sender, which is not a trusted proxy, is ignored, so it cannot escape the limit of its
+ * address by spoofing the header
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"auth.rate-limit.ip.capacity=2", "auth.rate-limit.ip.refill-period=1h",
+                "server.tomcat.remoteip.internal-proxies=192\\.0\\.2\\.1"})
+public class UntrustedForwardedClientAddressTest {
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private UserAuthorizationService userAuthorizationService;
+
+    @BeforeEach
+    public void setUp() {
+        when(userAuthorizationService.authorizeAsync(anyString(), anyString())).thenAnswer(invocation -> {
+            CompletableFuture<Optional<User>> wrongPassword = new CompletableFuture<>();
+            wrongPassword.completeExceptionally(WrongPasswordException.stackless("wrong password"));
+            return wrongPassword;
+        });
+    }
+
+    @Test
+    public void forwardedAddressShouldBeIgnored() throws IOException {
+        assertThat(login(port, "spoofed1", "203.0.113.4")).isNotEqualTo(TOO_MANY_REQUESTS);
+        assertThat(login(port, "spoofed2", "203.0.113.5")).isNotEqualTo(TOO_MANY_REQUESTS);
+
+        assertThat(login(port, "spoofed3", "203.0.113.6")).isEqualTo(TOO_MANY_REQUESTS);
+    }
+}
@@ -0,0 +1,147 @@
+package com.icl.auth.controller;
+
+import com.icl.auth.dto.ImportReport;
+import com.icl.auth.security.Role;
+import com.icl.auth.security.TokenService;
+import com.icl.auth.security.UserPrincipal;
+import com.icl.auth.service.UserImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class UserAdminControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @MockBean
+    private UserImportService userImportService;
+
+    @Test
+    public void anonymousCallerShouldBeUnauthorized() throws Exception {
+        mockMvc.perform(get("/admin/users"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/admin/users/export"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/admin/users/import").contentType("text/csv").content("alice,secret!,1990-01-01\n"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/admin/users").header(HttpHeaders.AUTHORIZATION, "Bearer forged.token"))
+                .andExpect(status().isUnauthorized());
+        verify(userImportService, never()).importCsv(any());
+    }
+
+    @Test
+    public void callerWithUserRoleShouldBeForbidden() throws Exception {
+        mockMvc.perform(as(Role.USER, get("/admin/users")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(as(Role.USER, get("/admin/users/export")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(as(Role.USER, post("/admin/users/import"))
+                .contentType("application/x-ndjson")
+                .content("{\"login\":\"q\"}\n"))
+                .andExpect(status().isForbidden());
+        verify(userImportService, never()).importJson(any());
+    }
+
+    @Test
+    @Sql(scripts = "classpath:data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    public void sessionUserShouldBeCheckedForAdminRole() throws Exception {
+        mockMvc.perform(get("/admin/users")
+                .sessionAttr("user", new UserPrincipal(2L, "q", null, Role.USER)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/admin/users")
+                .sessionAttr("user", new UserPrincipal(1L, "john", null, Role.ADMIN)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void importShouldDispatchByContentType() throws Exception {
+        ImportReport csvReport = new ImportReport();
+        csvReport.setImported(2);
+        ImportReport jsonReport = new ImportReport();
+        jsonReport.setFailed(1);
+        jsonReport.getErrors().add(new ImportReport.RowError(1, "q", "login already exists"));
+        when(userImportService.importCsv(any())).thenReturn(csvReport);
+        when(userImportService.importJson(any())).thenReturn(jsonReport);
+
+        mockMvc.perform(as(Role.ADMIN, post("/admin/users/import"))
+                .contentType("text/csv")
+                .content("alice,secret!,1990-01-01\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        mockMvc.perform(as(Role.ADMIN, post("/admin/users/import"))
+                .contentType("application/x-ndjson")
+                .content("{\"login\":\"q\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].message").value("login already exists"));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    public void findPageShouldReturnCursorOfNextPage() throws Exception {
+        mockMvc.perform(as(Role.ADMIN, get("/admin/users")).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].login").value("john"))
+                .andExpect(jsonPath("$.users[0].password").doesNotExist())
+                .andExpect(jsonPath("$.users[0].version").doesNotExist())
+                .andExpect(jsonPath("$.users[0].new").doesNotExist())
+                .andExpect(jsonPath("$.nextAfter").value(1));
+
+        mockMvc.perform(as(Role.ADMIN, get("/admin/users")).param("after", "1").param("limit", "5"))
+                .andExpect(jsonPath("$.users[0].login").value("q"))
+                .andExpect(jsonPath("$.nextAfter").doesNotExist());
+    }
+
+    @Test
+    @Sql(scripts = "classpath:data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    public void exportShouldStreamUsersAsNewlineDelimitedJson() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(as(Role.ADMIN, get("/admin/users/export")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"id\":1,\"login\":\"john\",\"dateOfBirth\":")
+                .endsWith("\"role\":\"USER\"}")
+                .doesNotContain("password", "version", "new");
+        assertThat(lines[1]).contains("\"login\":\"q\"");
+    }
+
+    private MockHttpServletRequestBuilder as(Role role, MockHttpServletRequestBuilder request) {
+        String token = tokenService.issue(new UserPrincipal(1L, "john", null, role));
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+}
@@ -0,0 +1,114 @@
+package com.icl.auth.invalidation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InvalidationBusTest {
+    private static final UserChangeEvent EVENT =
+            new UserChangeEvent(UserChangeEvent.Type.UPDATED, 1L, "john", 2L, "node-a");
+
+    @Test
+    public void inProcessBusShouldDeliverToBusesOfTheSameChannel() {
+        InProcessInvalidationBus a = new InProcessInvalidationBus("test-channel", "node-a");
+        InProcessInvalidationBus b = new InProcessInvalidationBus("test-channel", "node-b");
+        InProcessInvalidationBus other = new InProcessInvalidationBus("other-channel", "node-c");
+        List<UserChangeEvent> receivedByA = subscribe(a);
+        List<UserChangeEvent> receivedByB = subscribe(b);
+        List<UserChangeEvent> receivedByOther = subscribe(other);
+        try {
+            a.publish(EVENT);
+            assertThat(receivedByA).containsExactly(EVENT);
+            assertThat(receivedByB).containsExactly(EVENT);
+            assertThat(receivedByOther).isEmpty();
+
+            b.close();
+            a.publish(EVENT);
+            assertThat(receivedByB).hasSize(1);
+        } finally {
+            a.close();
+            b.close();
+            other.close();
+        }
+    }
+
+    @Test
+    public void subscriberFailureShouldNotStopDelivery() {
+        InProcessInvalidationBus bus = new InProcessInvalidationBus("failing-channel", "node-a");
+        bus.subscribe(event -> {
+            throw new IllegalStateException("failed");
+        });
+        List<UserChangeEvent> received = subscribe(bus);
+        try {
+            bus.publish(EVENT);
+            assertThat(received).containsExactly(EVENT);
+        } finally {
+            bus.close();
+        }
+    }
+
+    @Test
+    public void jdbcBusShouldDeliverEventsOfOtherNodesOnPoll() {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:invalidation;DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        JdbcInvalidationBus a = new JdbcInvalidationBus(jdbcTemplate, transactionManager, "node-a",
+                Duration.ofMinutes(10), 2);
+        JdbcInvalidationBus b = new JdbcInvalidationBus(jdbcTemplate, transactionManager, "node-b",
+                Duration.ofMinutes(10), 2);
+        a.init();
+        b.init();
+        List<UserChangeEvent> receivedByA = subscribe(a);
+        List<UserChangeEvent> receivedByB = subscribe(b);
+
+        UserChangeEvent created = new UserChangeEvent(UserChangeEvent.Type.CREATED, 3L, "new", null, "node-a");
+        UserChangeEvent deleted = new UserChangeEvent(UserChangeEvent.Type.DELETED, 3L, "new", null, "node-a");
+        a.publish(EVENT);
+        a.publish(created);
+        a.publish(deleted);
+        assertThat(receivedByA).containsExactly(EVENT, created, deleted);
+        assertThat(receivedByB).isEmpty();
+
+        a.poll();
+        b.poll();
+        assertThat(receivedByA).hasSize(3);
+        assertThat(receivedByB).containsExactly(EVENT, created, deleted);
+
+        b.poll();
+        assertThat(receivedByB).hasSize(3);
+    }
+
+    @Test
+    public void jdbcBusShouldDeleteExpiredEvents() {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:invalidation-expiry;DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        JdbcInvalidationBus bus = new JdbcInvalidationBus(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                "node-a", Duration.ofMinutes(10), 100);
+        bus.init();
+        bus.publish(EVENT);
+        jdbcTemplate.update("insert into user_change_event (type, user_id, origin, created_at) values (?, ?, ?, ?)",
+                "DELETED", 2L, "node-a", Timestamp.from(Instant.now().minus(Duration.ofHours(1))));
+
+        bus.deleteExpired();
+        assertThat(jdbcTemplate.queryForList("select user_id from user_change_event", Long.class))
+                .containsExactly(EVENT.getUserId());
+    }
+
+    private static List<UserChangeEvent> subscribe(InvalidationBus bus) {
+        List<UserChangeEvent> received = new ArrayList<>();
+        bus.subscribe(received::add);
+        return received;
+    }
+}
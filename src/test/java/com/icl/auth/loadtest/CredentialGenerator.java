@@ -0,0 +1,44 @@
+package com.icl.auth.loadtest;
+
+import java.util.Random;
+
+/**
+ * Generates logins and passwords of load-test users. Passwords match {@code User.password} constraints:
+ * word characters followed by non-word characters. Same seed gives the same sequence, so runs are reproducible
+ */
+public class CredentialGenerator {
+    private static final String WORD_CHARACTERS =
+            "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789_";
+    private static final String NON_WORD_CHARACTERS = "!@#$%^&*()-+=?.,;:~";
+
+    private final Random random;
+
+    public CredentialGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @param prefix prefix, which keeps logins of different kinds of users apart
+     * @param index  number of user
+     * @return login, which is unique for given prefix and index
+     */
+    public String login(String prefix, long index) {
+        return prefix + index;
+    }
+
+    /**
+     * @return password of 6 to 12 word characters followed by 1 to 3 non-word characters
+     */
+    public String password() {
+        StringBuilder password = new StringBuilder(15);
+        append(password, WORD_CHARACTERS, 6 + random.nextInt(7));
+        append(password, NON_WORD_CHARACTERS, 1 + random.nextInt(3));
+        return password.toString();
+    }
+
+    private void append(StringBuilder password, String characters, int count) {
+        for (int i = 0; i < count; i++) {
+            password.append(characters.charAt(random.nextInt(characters.length())));
+        }
+    }
+}
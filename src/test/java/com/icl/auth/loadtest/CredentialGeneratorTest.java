@@ -0,0 +1,33 @@
+package com.icl.auth.loadtest;
+
+import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CredentialGeneratorTest {
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    public void generatedUsersShouldBeValid() {
+        CredentialGenerator generator = new CredentialGenerator(42);
+        for (int i = 0; i < 10_000; i++) {
+            User user = new User(generator.login("user", i), generator.password(), LocalDate.of(2000, 1, 1), Role.USER);
+            assertThat(validator.validate(user)).isEmpty();
+        }
+    }
+
+    @Test
+    public void sameSeedShouldGiveSamePasswords() {
+        CredentialGenerator first = new CredentialGenerator(7);
+        CredentialGenerator second = new CredentialGenerator(7);
+        for (int i = 0; i < 100; i++) {
+            assertThat(first.password()).isEqualTo(second.password());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.icl.auth.repository;
+
+import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingUserRepositoryTest {
+    private UserRepository delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private CachingUserRepository repository;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        delegate = Mockito.mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        repository = new CachingUserRepository(delegate, 100, Duration.ofMinutes(1), meterRegistry);
+        user = new User(1L, "john", "hash", LocalDate.of(2000, 1, 1), Role.USER);
+        when(delegate.findByLogin("john")).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    public void findByLoginShouldServeRepeatedLookupsFromCache() {
+        assertThat(repository.findByLogin("john")).contains(user);
+        assertThat(repository.findByLogin("john")).contains(user);
+        verify(delegate, times(1)).findByLogin("john");
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void findByLoginShouldReturnCopiesNotAffectingCache() {
+        repository.findByLogin("john").ifPresent(u -> u.setRole(Role.ADMIN));
+        assertThat(repository.findByLogin("john").map(User::getRole)).contains(Role.USER);
+    }
+
+    @Test
+    public void saveShouldInvalidateCachedUser() {
+        repository.findByLogin("john");
+        User updated = new User(1L, "john", "new hash", LocalDate.of(2000, 1, 1), Role.USER);
+        when(delegate.save(updated)).thenReturn(updated);
+        when(delegate.findByLogin("john")).thenReturn(Optional.of(updated));
+
+        repository.save(updated);
+
+        assertThat(repository.findByLogin("john").map(User::getPassword)).contains("new hash");
+    }
+
+    @Test
+    public void deleteByIdShouldInvalidateCachedUser() throws Exception {
+        repository.findByLogin("john");
+        when(delegate.findByLogin("john")).thenReturn(Optional.empty());
+
+        repository.deleteById(1L);
+
+        assertThat(repository.findByLogin("john")).isEmpty();
+    }
+
+    @Test
+    public void invalidationDuringLoadShouldNotLeaveStaleUserInCache() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        User updated = new User(1L, "john", "new hash", LocalDate.of(2000, 1, 1), Role.USER);
+        when(delegate.findByLogin("john")).thenAnswer(invocation -> {
+            loading.countDown();
+            Thread.sleep(100);
+            return Optional.of(user);
+        }).thenReturn(Optional.of(updated));
+
+        CompletableFuture<Optional<User>> lookup = CompletableFuture.supplyAsync(() -> repository.findByLogin("john"));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        repository.invalidate(null, "john");
+
+        assertThat(lookup.get(5, TimeUnit.SECONDS)).contains(user);
+        assertThat(repository.findByLogin("john").map(User::getPassword)).contains("new hash");
+    }
+
+    @Test
+    public void slowLoadShouldNotBlockInvalidation() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.findByLogin("john")).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(user);
+        });
+
+        CompletableFuture<Optional<User>> lookup = CompletableFuture.supplyAsync(() -> repository.findByLogin("john"));
+        try {
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture.runAsync(() -> repository.invalidate(1L, "john")).get(1, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+        }
+        assertThat(lookup.get(5, TimeUnit.SECONDS)).contains(user);
+    }
+
+    @Test
+    public void invalidationByIdShouldDropUserCachedByLogin() {
+        repository.findByLogin("john");
+        User updated = new User(1L, "john", "new hash", LocalDate.of(2000, 1, 1), Role.USER);
+        when(delegate.findByLogin("john")).thenReturn(Optional.of(updated));
+
+        repository.invalidate(1L, null);
+
+        assertThat(repository.findByLogin("john").map(User::getPassword)).contains("new hash");
+    }
+
+    @Test
+    public void invalidationByIdDuringLoadShouldNotLeaveStaleUserInCache() {
+        User updated = new User(1L, "john", "new hash", LocalDate.of(2000, 1, 1), Role.USER);
+        when(delegate.findByLogin("john")).thenAnswer(invocation -> {
+            repository.invalidate(1L, null);
+            return Optional.of(user);
+        }).thenReturn(Optional.of(updated));
+
+        assertThat(repository.findByLogin("john").map(User::getPassword)).contains("hash");
+        assertThat(repository.findByLogin("john").map(User::getPassword)).contains("new hash");
+    }
+}
@@ -0,0 +1,27 @@
+package com.icl.auth.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoginBloomFilterTest {
+
+    @Test
+    public void mightContainShouldReturnTrueForEveryPutLogin() {
+        LoginBloomFilter filter = new LoginBloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i));
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("user" + i))).isTrue();
+    }
+
+    @Test
+    public void falsePositiveRateShouldStayCloseToConfigured() {
+        LoginBloomFilter filter = new LoginBloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i));
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("absent" + i))
+                .count();
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+}
@@ -0,0 +1,79 @@
+package com.icl.auth.repository;
+
+import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LoginFilteringUserRepositoryTest {
+    private JpaUserRepository delegate;
+    private LoginFilteringUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = Mockito.mock(JpaUserRepository.class);
+        when(delegate.findAllLogins()).thenReturn(Arrays.asList("john", "q"));
+        LoginExistenceFilter filter = new LoginExistenceFilter(delegate, 1000, 0.01,
+                Duration.ofMinutes(1), 1000, new SimpleMeterRegistry());
+        filter.rebuild();
+        repository = new LoginFilteringUserRepository(delegate, filter);
+    }
+
+    @Test
+    public void findByLoginShouldNotQueryDatabaseForUnknownLogin() {
+        assertThat(repository.findByLogin("unknown")).isEmpty();
+        verify(delegate, never()).findByLogin("unknown");
+    }
+
+    @Test
+    public void findByLoginShouldQueryDatabaseForKnownLogin() {
+        User user = new User("john", "1w?", LocalDate.of(2000, 1, 1), Role.USER);
+        when(delegate.findByLogin("john")).thenReturn(Optional.of(user));
+        assertThat(repository.findByLogin("john")).contains(user);
+    }
+
+    @Test
+    public void findByLoginShouldCacheMissForLoginPassingBloomFilter() {
+        when(delegate.findByLogin("q")).thenReturn(Optional.empty());
+        assertThat(repository.findByLogin("q")).isEmpty();
+        assertThat(repository.findByLogin("q")).isEmpty();
+        verify(delegate, times(1)).findByLogin("q");
+    }
+
+    @Test
+    public void saveShouldMakeLoginVisible() {
+        User user = new User("new", "1w?", LocalDate.of(2000, 1, 1), Role.USER);
+        when(delegate.save(user)).thenReturn(user);
+        when(delegate.findByLogin("new")).thenReturn(Optional.of(user));
+
+        assertThat(repository.findByLogin("new")).isEmpty();
+        repository.save(user);
+        assertThat(repository.findByLogin("new")).contains(user);
+    }
+
+    @Test
+    public void missRacingWithSaveShouldNotHideSavedUser() {
+        User user = new User("q", "1w?", LocalDate.of(2000, 1, 1), Role.USER);
+        when(delegate.save(user)).thenReturn(user);
+        when(delegate.findByLogin("q")).thenAnswer(invocation -> {
+            repository.save(user);
+            return Optional.empty();
+        }).thenReturn(Optional.of(user));
+
+        assertThat(repository.findByLogin("q")).isEmpty();
+        assertThat(repository.findByLogin("q")).contains(user);
+    }
+}
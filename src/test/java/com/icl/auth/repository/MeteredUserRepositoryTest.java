@@ -0,0 +1,48 @@
+package com.icl.auth.repository;
+
+import com.icl.auth.exception.UserNotFoundException;
+import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+public class MeteredUserRepositoryTest {
+    private JpaUserRepository delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private MeteredUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = Mockito.mock(JpaUserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        repository = new MeteredUserRepository(delegate, meterRegistry);
+    }
+
+    @Test
+    public void findByLoginShouldBeTimedPerMethod() {
+        User user = new User("john", "1w?", LocalDate.of(2000, 1, 1), Role.USER);
+        when(delegate.findByLogin("john")).thenReturn(Optional.of(user));
+
+        assertThat(repository.findByLogin("john")).contains(user);
+        assertThat(meterRegistry.timer("auth.repository", "method", "findByLogin").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("auth.repository", "method", "save").count()).isZero();
+    }
+
+    @Test
+    public void failedCallShouldBeTimed() throws UserNotFoundException {
+        doThrow(new UserNotFoundException("not found")).when(delegate).deleteById(1L);
+
+        assertThatExceptionOfType(UserNotFoundException.class).isThrownBy(() -> repository.deleteById(1L));
+        assertThat(meterRegistry.timer("auth.repository", "method", "deleteById").count()).isEqualTo(1);
+    }
+}
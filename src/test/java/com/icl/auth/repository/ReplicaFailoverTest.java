@@ -0,0 +1,37 @@
+package com.icl.auth.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replica is an H2 server on a port nobody listens on, so every connection attempt to it fails
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:failover-primary;MODE=PostgreSQL",
+        "auth.replica.enabled=true",
+        "auth.replica.urls=jdbc:h2:tcp://localhost:1/mem:failover-replica",
+        "auth.replica.health-check-interval-ms=3600000",
+        "auth.user-cache.enabled=false",
+        "auth.login-filter.enabled=false"})
+public class ReplicaFailoverTest {
+    @Autowired
+    private JpaUserRepository jpaUserRepository;
+
+    @Autowired
+    private ReplicaRoutingDataSource dataSource;
+
+    @Test
+    public void readShouldFallBackToPrimaryWithinReplicaConnectionTimeout() {
+        long started = System.nanoTime();
+
+        assertThat(jpaUserRepository.findByLogin("john")).isPresent();
+
+        assertThat(System.nanoTime() - started).isLessThan(TimeUnit.SECONDS.toNanos(5));
+        assertThat(dataSource.getHealthyReplicaCount()).isZero();
+    }
+}
@@ -0,0 +1,37 @@
+package com.icl.auth.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replica is a separate H2 database, which never receives writes of the primary, so it stands for a replica
+ * lagging behind it
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:filter-primary;MODE=PostgreSQL",
+        "auth.replica.enabled=true",
+        "auth.replica.urls=jdbc:h2:mem:filter-replica;MODE=PostgreSQL;"
+                + "INIT=RUNSCRIPT FROM 'classpath:replica-schema.sql'",
+        "auth.user-cache.enabled=false"})
+public class ReplicaLoginFilterTest {
+    @Autowired
+    private LoginExistenceFilter loginExistenceFilter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void rebuildShouldReadLoginsFromPrimary() {
+        jdbcTemplate.update("insert into \"user\" (login, login_normalized, password, date_of_birth, role, version) "
+                + "values ('notreplicated', 'notreplicated', 'hash', '2000-01-01', 'USER', 0)");
+
+        loginExistenceFilter.rebuild();
+
+        assertThat(loginExistenceFilter.isKnownAbsent("notreplicated")).isFalse();
+        assertThat(loginExistenceFilter.isKnownAbsent("replicated")).isTrue();
+    }
+}
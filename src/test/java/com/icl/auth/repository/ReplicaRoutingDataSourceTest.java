@@ -0,0 +1,68 @@
+package com.icl.auth.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class ReplicaRoutingDataSourceTest {
+    private final DataSource primary = Mockito.mock(DataSource.class);
+    private final DataSource replica = Mockito.mock(DataSource.class);
+    private final Connection primaryConnection = Mockito.mock(Connection.class);
+    private final Connection replicaConnection = Mockito.mock(Connection.class);
+    private ReplicaRoutingDataSource.Router dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        dataSource = new ReplicaRoutingDataSource.Router(primary, Collections.singletonList(replica), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void readOnlyTransactionShouldUseReplica() throws SQLException {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(dataSource.getConnection()).isSameAs(replicaConnection);
+        assertThat(ReplicaRoutingDataSource.onPrimary(this::connection)).isSameAs(primaryConnection);
+    }
+
+    @Test
+    public void failedReplicaShouldFallBackToPrimaryUntilHealthCheckPasses() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica.getConnection()).thenThrow(new SQLException("down"));
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(dataSource.getHealthyReplicaCount()).isZero();
+
+        Mockito.reset(replica);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.isValid(1)).thenReturn(true);
+        dataSource.checkReplicas();
+        assertThat(dataSource.getHealthyReplicaCount()).isEqualTo(1);
+        assertThat(dataSource.getConnection()).isSameAs(replicaConnection);
+    }
+
+    private Connection connection() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
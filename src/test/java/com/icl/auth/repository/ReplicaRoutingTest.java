@@ -0,0 +1,57 @@
+package com.icl.auth.repository;
+
+import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Primary and replica are two H2 databases without replication between them, replica has its own schema
+ * and a single user "replicated"
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;MODE=PostgreSQL",
+        "auth.replica.enabled=true",
+        "auth.replica.urls=jdbc:h2:mem:replica;MODE=PostgreSQL;INIT=RUNSCRIPT FROM 'classpath:replica-schema.sql'",
+        "auth.user-cache.enabled=false",
+        "auth.login-filter.enabled=false"})
+public class ReplicaRoutingTest {
+    @Autowired
+    private JpaUserRepository jpaUserRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void readsShouldGoToReplica() {
+        assertThat(jpaUserRepository.findByLogin("replicated")).isPresent();
+        assertThat(jpaUserRepository.findByLogin("john")).isEmpty();
+    }
+
+    @Test
+    public void writesShouldGoToPrimary() {
+        User user = jpaUserRepository.save(new User("written", "1w?", LocalDate.of(2000, 1, 1), Role.USER));
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from \"user\" where id = ?", Integer.class,
+                user.getId())).isEqualTo(1);
+        assertThat(jpaUserRepository.findById(user.getId())).isEmpty();
+    }
+
+    @Test
+    public void recentlyWrittenUserShouldBeReadFromPrimary() {
+        User user = userRepository.save(new User("Registered", "1w?", LocalDate.of(2000, 1, 1), Role.USER));
+
+        assertThat(userRepository.findByLogin("registered")).isPresent();
+        assertThat(userRepository.findById(user.getId())).isPresent();
+        assertThat(userRepository.findByLogin("replicated")).isPresent();
+    }
+}
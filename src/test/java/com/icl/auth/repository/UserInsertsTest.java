@@ -0,0 +1,63 @@
+package com.icl.auth.repository;
+
+import com.icl.auth.model.User;
+import com.icl.auth.security.Role;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserInsertsTest {
+    private final User john = new User("john", "{bcrypt}hash", LocalDate.of(2000, 1, 1), Role.USER);
+    private final User taken = new User("taken", "{bcrypt}hash", LocalDate.of(2000, 1, 1), Role.USER);
+    private final DataIntegrityViolationException duplicate = new DataIntegrityViolationException("duplicate",
+            new SQLException("unique index violated", "23505"));
+
+    @Test
+    public void batchShouldBeInsertedWithSingleCall() {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        List<User> inserted = new ArrayList<>();
+
+        UserInserts.insertAll(userRepository, Arrays.asList(john, taken), user -> user, inserted::add,
+                (user, e) -> { });
+
+        assertThat(inserted).containsExactly(john, taken);
+        verify(userRepository, times(1)).insertAll(anyList());
+    }
+
+    @Test
+    public void failedBatchShouldBeInsertedUserByUser() {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        when(userRepository.insertAll(Arrays.asList(john, taken))).thenThrow(duplicate);
+        when(userRepository.insertAll(Collections.singletonList(taken))).thenThrow(duplicate);
+        List<User> inserted = new ArrayList<>();
+        List<User> failed = new ArrayList<>();
+
+        UserInserts.insertAll(userRepository, Arrays.asList(john, taken), user -> user, inserted::add,
+                (user, e) -> {
+                    assertThat(UserInserts.isUniqueViolation(e)).isTrue();
+                    failed.add(user);
+                });
+
+        assertThat(inserted).containsExactly(john);
+        assertThat(failed).containsExactly(taken);
+    }
+
+    @Test
+    public void otherViolationShouldNotBeUniqueViolation() {
+        assertThat(UserInserts.isUniqueViolation(new DataIntegrityViolationException("null",
+                new SQLException("null not allowed", "23502")))).isFalse();
+    }
+}
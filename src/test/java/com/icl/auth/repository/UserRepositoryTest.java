@@ -8,13 +8,18 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlGroup;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -26,6 +31,9 @@ public class UserRepositoryTest {
     @Autowired
     private JpaUserRepository userRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private User user;
 
     @BeforeEach
@@ -41,6 +49,12 @@ public class UserRepositoryTest {
         assertThat(userRepository.save(user)).isEqualTo(user);
     }
 
+    @Test
+    public void saveShouldStoreUserWithEncodedPassword() {
+        user.setPassword("$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy");
+        assertThat(userRepository.save(user).getId()).isNotNull();
+    }
+
     @Test
     public void saveShouldUpdateUser() {
         assertThat(userRepository.save(user).getRole()).isEqualTo(Role.USER);
@@ -73,4 +87,87 @@ public class UserRepositoryTest {
         assertThat(userRepository.findAll().get(0).getLogin()).isEqualTo("john");
         assertThat(userRepository.findAll().get(1).getDateOfBirth()).isEqualTo(LocalDate.of(2000, 11, 17));
     }
+
+    @Test
+    public void findPageShouldUseLastIdAsCursor() {
+        assertThat(userRepository.save(user)).isEqualTo(user);
+        List<User> firstPage = userRepository.findPage(null, 2);
+        assertThat(firstPage).extracting(User::getLogin).containsExactly("john", "q");
+        assertThat(userRepository.findPage(firstPage.get(1).getId(), 2)).containsExactly(user);
+        assertThat(userRepository.findPage(user.getId(), 2)).isEmpty();
+    }
+
+    @Test
+    public void streamAllShouldReturnAllUsersOrderedById() {
+        assertThat(userRepository.save(user)).isEqualTo(user);
+        try (Stream<User> users = userRepository.streamAll(1)) {
+            assertThat(users.map(User::getLogin)).containsExactly("john", "q", user.getLogin());
+        }
+    }
+
+    @Test
+    public void updatePasswordShouldReplaceOnlyExpectedHash() {
+        assertThat(userRepository.save(user)).isEqualTo(user);
+        assertThat(userRepository.updatePassword(user.getId(), "stale", "new")).isFalse();
+        assertThat(userRepository.updatePassword(user.getId(), user.getPassword(), "new")).isTrue();
+        assertThat(userRepository.findByLogin(user.getLogin()).map(User::getPassword)).contains("new");
+    }
+
+    @Test
+    public void saveShouldRejectStaleCopy() {
+        userRepository.save(user);
+        User first = userRepository.findById(user.getId()).orElseThrow(IllegalStateException::new);
+        User second = userRepository.findById(user.getId()).orElseThrow(IllegalStateException::new);
+
+        first.setRole(Role.ADMIN);
+        assertThat(userRepository.save(first).getVersion()).isEqualTo(second.getVersion() + 1);
+        second.setDateOfBirth(LocalDate.of(2000, 1, 1));
+        assertThatExceptionOfType(ObjectOptimisticLockingFailureException.class)
+                .isThrownBy(() -> userRepository.save(second));
+        assertThat(userRepository.findById(user.getId()).map(User::getRole)).contains(Role.ADMIN);
+    }
+
+    @Test
+    public void saveShouldNotRevertPasswordUpdatedSinceRead() {
+        userRepository.save(user);
+        User copy = userRepository.findById(user.getId()).orElseThrow(IllegalStateException::new);
+        assertThat(userRepository.updatePassword(user.getId(), user.getPassword(), "new")).isTrue();
+
+        copy.setRole(Role.ADMIN);
+        assertThatExceptionOfType(ObjectOptimisticLockingFailureException.class)
+                .isThrownBy(() -> userRepository.save(copy));
+        assertThat(userRepository.findById(user.getId()).map(User::getPassword)).contains("new");
+    }
+
+    @Test
+    public void updateRoleShouldReplaceRoleAndIncrementVersion() {
+        userRepository.save(user);
+        assertThat(userRepository.updateRole(user.getId(), Role.ADMIN)).isTrue();
+        assertThat(userRepository.updateRole(Long.MAX_VALUE, Role.ADMIN)).isFalse();
+        assertThat(userRepository.findById(user.getId())).hasValueSatisfying(found -> {
+            assertThat(found.getRole()).isEqualTo(Role.ADMIN);
+            assertThat(found.getVersion()).isEqualTo(user.getVersion() + 1);
+        });
+    }
+
+    @Test
+    public void findByLoginShouldIgnoreCase() {
+        assertThat(userRepository.findByLogin("JoHN")).hasValueSatisfying(found -> {
+            assertThat(found.getId()).isEqualTo(1L);
+            assertThat(found.getLogin()).isEqualTo("john");
+        });
+    }
+
+    @Test
+    public void saveShouldRejectLoginDifferingOnlyInCase() {
+        assertThatExceptionOfType(DataIntegrityViolationException.class)
+                .isThrownBy(() -> userRepository.save(new User("JOHN", "1w?", LocalDate.of(2000, 1, 1), Role.USER)));
+    }
+
+    @Test
+    public void loginLookupShouldUseIndex() {
+        String plan = jdbcTemplate.queryForObject(
+                "explain select * from \"user\" where login_normalized = 'john'", String.class);
+        assertThat(plan).doesNotContain("tableScan");
+    }
 }
@@ -0,0 +1,30 @@
+package com.icl.auth.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BCryptStrengthCalibratorTest {
+
+    @Test
+    public void strengthForShouldAddOneStepPerDoublingOfTargetTime() {
+        Duration measured = Duration.ofMillis(50);
+        assertThat(BCryptStrengthCalibrator.strengthFor(Duration.ofMillis(50), measured, 10, 14)).isEqualTo(10);
+        assertThat(BCryptStrengthCalibrator.strengthFor(Duration.ofMillis(100), measured, 10, 14)).isEqualTo(11);
+        assertThat(BCryptStrengthCalibrator.strengthFor(Duration.ofMillis(400), measured, 10, 14)).isEqualTo(13);
+    }
+
+    @Test
+    public void strengthForShouldStayWithinBounds() {
+        Duration measured = Duration.ofMillis(50);
+        assertThat(BCryptStrengthCalibrator.strengthFor(Duration.ofMillis(1), measured, 10, 14)).isEqualTo(10);
+        assertThat(BCryptStrengthCalibrator.strengthFor(Duration.ofSeconds(60), measured, 10, 14)).isEqualTo(14);
+    }
+
+    @Test
+    public void calibrateShouldReturnStrengthWithinBounds() {
+        assertThat(BCryptStrengthCalibrator.calibrate(Duration.ofMillis(10), 4, 6)).isBetween(4, 6);
+    }
+}
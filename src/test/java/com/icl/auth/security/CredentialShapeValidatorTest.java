@@ -0,0 +1,110 @@
+package com.icl.auth.security;
+
+import com.icl.auth.exception.HashingCapacityExceededException;
+import com.icl.auth.exception.MalformedCredentialsException;
+import com.icl.auth.metrics.AuthMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class CredentialShapeValidatorTest {
+    private final AuthMetrics authMetrics = new AuthMetrics(new SimpleMeterRegistry());
+    private final CredentialShapeValidator validator = new CredentialShapeValidator(authMetrics, true,
+            Duration.ofMillis(200), 2, 1);
+
+    @AfterEach
+    void tearDown() {
+        validator.shutdown();
+    }
+
+    @Test
+    public void isPossibleShouldAcceptCredentialsMatchingUserConstraints() {
+        assertThat(validator.isPossible("john", "secret!")).isTrue();
+        assertThat(validator.isPossible("john", "1w?")).isTrue();
+        assertThat(validator.isPossible("john", repeat("w", 71) + "!")).isTrue();
+    }
+
+    @Test
+    public void isPossibleShouldRejectCredentialsNoUserCanHave() {
+        assertThat(validator.isPossible(null, "secret!")).isFalse();
+        assertThat(validator.isPossible(" ", "secret!")).isFalse();
+        assertThat(validator.isPossible(repeat("j", CredentialShapeValidator.MAX_LOGIN_LENGTH + 1), "secret!"))
+                .isFalse();
+        assertThat(validator.isPossible("john", null)).isFalse();
+        assertThat(validator.isPossible("john", "")).isFalse();
+        assertThat(validator.isPossible("john", "w!")).isFalse();
+        assertThat(validator.isPossible("john", "secret")).isFalse();
+        assertThat(validator.isPossible("john", "!secret")).isFalse();
+        assertThat(validator.isPossible("john", repeat("w", 72) + "!")).isFalse();
+        assertThat(validator.isPossible("john", repeat("w", 70) + "\u00e9!")).isFalse();
+    }
+
+    @Test
+    public void utf8LengthShouldMatchEncodedLength() {
+        for (String string : new String[]{"", "secret!", "\u00e9\u00e9", "\u20ac", "\ud83d\ude00!"}) {
+            assertThat(CredentialShapeValidator.utf8Length(string))
+                    .isEqualTo(string.getBytes(StandardCharsets.UTF_8).length);
+        }
+    }
+
+    @Test
+    public void rejectShouldFailAfterMeanVerificationTime() {
+        authMetrics.verificationTimer().record(100, TimeUnit.MILLISECONDS);
+        long started = System.nanoTime();
+        CompletableFuture<Object> rejected = validator.reject();
+
+        assertThat(rejected).isNotDone();
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(rejected::get)
+                .withCauseInstanceOf(MalformedCredentialsException.class);
+        assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void rejectShouldFailAtOnceWithoutUniformTiming() {
+        CredentialShapeValidator immediate = new CredentialShapeValidator(authMetrics, false, Duration.ofMillis(200),
+                2, 1);
+        try {
+            assertThat(immediate.reject()).isCompletedExceptionally();
+        } finally {
+            immediate.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectShouldFailFastWhenTooManyRejectionsAreDelayed() throws Exception {
+        authMetrics.verificationTimer().record(100, TimeUnit.MILLISECONDS);
+        CompletableFuture<Object> first = validator.reject();
+        validator.reject();
+
+        assertThatExceptionOfType(HashingCapacityExceededException.class).isThrownBy(validator::reject);
+
+        assertThatExceptionOfType(ExecutionException.class).isThrownBy(first::get);
+        CompletableFuture<Object> afterDelay = validator.reject();
+        assertThat(afterDelay).isNotDone();
+    }
+
+    @Test
+    public void shutdownShouldCompleteDelayedRejections() {
+        CompletableFuture<Object> rejected = validator.reject();
+
+        validator.shutdown();
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(validator.<Object>reject()).isCompletedExceptionally();
+    }
+
+    private static String repeat(String string, int times) {
+        return String.join("", Collections.nCopies(times, string));
+    }
+}
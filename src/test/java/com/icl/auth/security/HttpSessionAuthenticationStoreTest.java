@@ -0,0 +1,68 @@
+package com.icl.auth.security;
+
+import com.icl.auth.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.util.SerializationUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HttpSessionAuthenticationStoreTest {
+    private final HttpSessionAuthenticationStore store = new HttpSessionAuthenticationStore();
+    private final User user = new User("john", "{bcrypt}$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW",
+            LocalDate.of(2000, 11, 17), Role.USER);
+
+    {
+        user.setId(1L);
+    }
+
+    @Test
+    public void storeShouldKeepPrincipalWithoutPasswordHashInSession() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        store.store(user, request, new MockHttpServletResponse());
+
+        Object attribute = request.getSession().getAttribute(HttpSessionAuthenticationStore.USER_ATTRIBUTE);
+        assertThat(attribute).isEqualTo(new UserPrincipal(1L, "john", LocalDate.of(2000, 11, 17), Role.USER));
+        assertThat(store.load(request)).contains((UserPrincipal) attribute);
+    }
+
+    @Test
+    public void loadShouldReplaceEntityKeptBySessionStoredBefore() {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(HttpSessionAuthenticationStore.USER_ATTRIBUTE, user);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(session);
+
+        assertThat(store.load(request)).contains(UserPrincipal.from(user));
+        assertThat(session.getAttribute(HttpSessionAuthenticationStore.USER_ATTRIBUTE))
+                .isInstanceOf(UserPrincipal.class);
+    }
+
+    @Test
+    public void serializedPrincipalShouldBeSmallerThanEntity() {
+        byte[] entity = SerializationUtils.serialize(user);
+        byte[] principal = SerializationUtils.serialize(UserPrincipal.from(user));
+
+        assertThat(principal.length).isLessThan(entity.length);
+        assertThat(new String(principal, StandardCharsets.ISO_8859_1)).doesNotContain("$2a$");
+        assertThat(SerializationUtils.deserialize(principal)).isEqualTo(UserPrincipal.from(user));
+    }
+
+    /**
+     * Role is the last field of the serialized form, followed by the end of its block data
+     */
+    @Test
+    public void unknownRoleShouldBeReadAsNoRole() {
+        byte[] principal = SerializationUtils.serialize(UserPrincipal.from(user));
+        assertThat(principal[principal.length - 2]).isEqualTo((byte) Role.USER.ordinal());
+        principal[principal.length - 2] = 100;
+
+        assertThat(SerializationUtils.deserialize(principal))
+                .isEqualTo(new UserPrincipal(1L, "john", LocalDate.of(2000, 11, 17), null));
+    }
+}
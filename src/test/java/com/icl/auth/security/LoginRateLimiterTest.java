@@ -0,0 +1,98 @@
+package com.icl.auth.security;
+
+import com.icl.auth.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class LoginRateLimiterTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private LoginRateLimiter limiter(int loginCapacity, int ipCapacity) {
+        return new LoginRateLimiter(loginCapacity, Duration.ofSeconds(6), ipCapacity, Duration.ofSeconds(1),
+                100_000, Duration.ofMinutes(10), new SimpleMeterRegistry(), nanoTime::get);
+    }
+
+    @Test
+    public void loginBucketShouldRejectAttemptsOverCapacityUntilRefilled() {
+        LoginRateLimiter limiter = limiter(3, 100);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("john", "10.0.0." + i);
+        }
+
+        assertThatExceptionOfType(RateLimitExceededException.class)
+                .isThrownBy(() -> limiter.acquire("john", "10.0.0.4"))
+                .satisfies(e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(6));
+        limiter.acquire("q", "10.0.0.4");
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        limiter.acquire("john", "10.0.0.4");
+    }
+
+    @Test
+    public void ipBucketShouldRejectAttemptsOverCapacityForAnyLogin() {
+        LoginRateLimiter limiter = limiter(100, 2);
+        limiter.acquire("a", "10.0.0.1");
+        limiter.acquire("b", "10.0.0.1");
+
+        assertThatExceptionOfType(RateLimitExceededException.class)
+                .isThrownBy(() -> limiter.acquire("c", "10.0.0.1"));
+        limiter.acquire("c", "10.0.0.2");
+    }
+
+    @Test
+    public void concurrentAttemptsShouldAcquireExactlyCapacityPerKey() throws Exception {
+        int keys = 5000;
+        int capacity = 4;
+        int threads = 8;
+        LoginRateLimiter limiter = limiter(capacity, Integer.MAX_VALUE);
+        AtomicLongArray acquired = new AtomicLongArray(keys);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int attempt = 0; attempt < capacity; attempt++) {
+                        for (int key = 0; key < keys; key++) {
+                            try {
+                                limiter.acquire("user" + key, null);
+                                acquired.incrementAndGet(key);
+                            } catch (RateLimitExceededException e) {
+                                // expected, when other threads took the tokens
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+            for (int key = 0; key < keys; key++) {
+                assertThat(acquired.get(key)).isEqualTo(capacity);
+            }
+            assertThat(elapsedMillis).isLessThan(TimeUnit.SECONDS.toMillis(30));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
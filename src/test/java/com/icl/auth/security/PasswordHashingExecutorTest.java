@@ -0,0 +1,66 @@
+package com.icl.auth.security;
+
+import com.icl.auth.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class PasswordHashingExecutorTest {
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PasswordHashingExecutor(1, 1, 5, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void submitShouldCompleteWithTaskResult() throws Exception {
+        assertThat(executor.submit(() -> true).get()).isTrue();
+        assertThat(meterRegistry.get("auth.hashing.wait").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void submitShouldCompleteWithUnwrappedTaskException() {
+        CompletableFuture<Object> future = executor.submit(() -> {
+            throw new IllegalStateException();
+        });
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(future::get)
+                .withCauseExactlyInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void submitShouldRejectWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            release.await();
+            return true;
+        });
+        started.await();
+        executor.submit(() -> true);
+
+        assertThatExceptionOfType(HashingCapacityExceededException.class)
+                .isThrownBy(() -> executor.submit(() -> true))
+                .satisfies(e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(5));
+        assertThat(meterRegistry.get("auth.hashing.queue.size").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.hashing.rejected").counter().count()).isEqualTo(1);
+        release.countDown();
+    }
+}
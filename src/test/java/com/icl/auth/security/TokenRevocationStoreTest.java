@@ -0,0 +1,92 @@
+package com.icl.auth.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Clock;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenRevocationStoreTest {
+    private static final long EXPIRES_AT = Instant.now().getEpochSecond() + 3600;
+
+    @Test
+    public void inProcessStoreShouldShareRevocationsWithStoresOfTheSameChannel() {
+        InProcessTokenRevocationStore a = new InProcessTokenRevocationStore("revocation-channel");
+        InProcessTokenRevocationStore b = new InProcessTokenRevocationStore("revocation-channel");
+        InProcessTokenRevocationStore other = new InProcessTokenRevocationStore("other-revocation-channel");
+        try {
+            a.revoke("token", EXPIRES_AT);
+            assertThat(a.isRevoked("token")).isTrue();
+            assertThat(b.isRevoked("token")).isTrue();
+            assertThat(other.isRevoked("token")).isFalse();
+
+            b.close();
+            a.revoke("later", EXPIRES_AT);
+            assertThat(b.isRevoked("later")).isFalse();
+        } finally {
+            a.close();
+            b.close();
+            other.close();
+        }
+    }
+
+    @Test
+    public void jdbcStoreShouldShareRevocationsOnPoll() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:revocation;DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", ""));
+        JdbcTokenRevocationStore a = new JdbcTokenRevocationStore(jdbcTemplate, 2, Clock.systemUTC());
+        JdbcTokenRevocationStore b = new JdbcTokenRevocationStore(jdbcTemplate, 2, Clock.systemUTC());
+        a.init();
+        b.init();
+
+        a.revoke("first", EXPIRES_AT);
+        a.revoke("second", EXPIRES_AT);
+        a.revoke("third", EXPIRES_AT);
+        assertThat(a.isRevoked("first")).isTrue();
+        assertThat(b.isRevoked("first")).isFalse();
+
+        b.poll();
+        assertThat(b.isRevoked("first")).isTrue();
+        assertThat(b.isRevoked("third")).isTrue();
+
+        JdbcTokenRevocationStore started = new JdbcTokenRevocationStore(jdbcTemplate, 2, Clock.systemUTC());
+        started.init();
+        assertThat(started.isRevoked("second")).isTrue();
+    }
+
+    @Test
+    public void jdbcStoreShouldDeleteRevocationsOfExpiredTokens() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:revocation-expiry;DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", ""));
+        JdbcTokenRevocationStore store = new JdbcTokenRevocationStore(jdbcTemplate, 100, Clock.systemUTC());
+        store.init();
+        store.revoke("valid", EXPIRES_AT);
+        jdbcTemplate.update("insert into revoked_token (token, expires_at) values (?, ?)",
+                "expired", Instant.now().getEpochSecond() - 1);
+
+        store.deleteExpired();
+        assertThat(jdbcTemplate.queryForList("select token from revoked_token", String.class))
+                .containsExactly("valid");
+    }
+
+    @Test
+    public void jdbcStoreShouldPickUpRevocationCommittedBehindPolledOnes() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:revocation-late;DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", ""));
+        JdbcTokenRevocationStore store = new JdbcTokenRevocationStore(jdbcTemplate, 100, Clock.systemUTC());
+        store.init();
+        jdbcTemplate.update("insert into revoked_token (seq, token, expires_at) values (?, ?, ?)",
+                10L, "polled", EXPIRES_AT);
+        store.poll();
+        jdbcTemplate.update("insert into revoked_token (seq, token, expires_at) values (?, ?, ?)",
+                5L, "late", EXPIRES_AT);
+
+        store.poll();
+        assertThat(store.isRevoked("late")).isFalse();
+        store.deleteExpired();
+        assertThat(store.isRevoked("late")).isTrue();
+    }
+}
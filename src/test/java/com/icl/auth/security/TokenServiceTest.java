@@ -0,0 +1,132 @@
+package com.icl.auth.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenServiceTest {
+    private static final byte[] SECRET = new byte[32];
+
+    private MutableClock clock;
+    private InProcessTokenRevocationStore revocationStore;
+    private TokenService tokenService;
+    private UserPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2020-01-01T00:00:00Z"));
+        revocationStore = new InProcessTokenRevocationStore("token-service-test", clock);
+        tokenService = new TokenService(SECRET, Duration.ofHours(1), revocationStore, clock);
+        principal = new UserPrincipal(42L, "jöhn", LocalDate.of(2000, 11, 17), Role.ADMIN);
+    }
+
+    @Test
+    public void verifyShouldReturnPrincipalOfIssuedToken() {
+        assertThat(tokenService.verify(tokenService.issue(principal))).contains(principal);
+    }
+
+    @Test
+    public void verifyShouldRejectTamperedToken() {
+        String token = tokenService.issue(principal);
+        String forged = tokenService.issue(new UserPrincipal(1L, "jöhn", null, Role.ADMIN));
+        String tampered = forged.substring(0, forged.indexOf('.')) + token.substring(token.indexOf('.'));
+
+        assertThat(tokenService.verify(tampered)).isEmpty();
+        assertThat(tokenService.verify(token.substring(0, token.length() - 1) + "A")).isEmpty();
+        assertThat(tokenService.verify("garbage")).isEmpty();
+        assertThat(tokenService.verify(null)).isEmpty();
+    }
+
+    @Test
+    public void verifyShouldRejectTokenSignedWithAnotherKey() {
+        byte[] otherSecret = Arrays.copyOf(SECRET, SECRET.length);
+        otherSecret[0] = 1;
+        String token = new TokenService(otherSecret, Duration.ofHours(1), revocationStore, clock).issue(principal);
+        assertThat(tokenService.verify(token)).isEmpty();
+    }
+
+    @AfterEach
+    void tearDown() {
+        revocationStore.close();
+    }
+
+    @Test
+    public void verifyShouldRejectExpiredToken() {
+        String token = tokenService.issue(principal);
+        clock.advance(Duration.ofHours(1));
+        assertThat(tokenService.verify(token)).isEmpty();
+    }
+
+    @Test
+    public void verifyShouldRejectRevokedToken() {
+        String token = tokenService.issue(principal);
+        String other = tokenService.issue(new UserPrincipal(43L, "q", null, Role.USER));
+        tokenService.revoke(token);
+        assertThat(tokenService.verify(token)).isEmpty();
+        assertThat(tokenService.verify(other)).isPresent();
+    }
+
+    @Test
+    public void tokenRevokedOnOneNodeShouldBeRejectedByAnother() {
+        InProcessTokenRevocationStore otherStore = new InProcessTokenRevocationStore("token-service-test", clock);
+        try {
+            TokenService otherNode = new TokenService(SECRET, Duration.ofHours(1), otherStore, clock);
+            String token = tokenService.issue(principal);
+
+            tokenService.revoke(token);
+
+            assertThat(otherNode.verify(token)).isEmpty();
+        } finally {
+            otherStore.close();
+        }
+    }
+
+    @Test
+    public void revokedTokenShouldNotBeEvictedByLaterRevocations() {
+        String token = tokenService.issue(principal);
+        tokenService.revoke(token);
+
+        for (long id = 0; id < 10_000; id++) {
+            tokenService.revoke(tokenService.issue(new UserPrincipal(id, "q", null, Role.USER)));
+        }
+
+        assertThat(tokenService.verify(token)).isEmpty();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.icl.auth.service;
+
+import com.icl.auth.exception.LoginAlreadyTakenException;
+import com.icl.auth.exception.RegistrationCapacityExceededException;
+import com.icl.auth.model.User;
+import com.icl.auth.repository.UserRepository;
+import com.icl.auth.security.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+public class RegistrationWriterTest {
+    private final UserRepository repository = Mockito.mock(UserRepository.class);
+    private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+    private RegistrationWriter writer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    public void usersQueuedWithinMaxDelayShouldBeInsertedByOneBatchInQueueOrder() throws Exception {
+        recordBatches();
+        writer = writer(10, 100, Duration.ofMillis(500));
+
+        List<CompletableFuture<User>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(writer.submit(user("user" + i)));
+        }
+
+        for (CompletableFuture<User> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS).getId()).isNotNull();
+        }
+        assertThat(batches).containsExactly(listOf("user0", "user1", "user2", "user3", "user4"));
+    }
+
+    @Test
+    public void fullBatchShouldBeInsertedWithoutWaitingForMaxDelay() throws Exception {
+        recordBatches();
+        writer = writer(10, 2, Duration.ofMinutes(1));
+
+        CompletableFuture<User> first = writer.submit(user("first"));
+        CompletableFuture<User> second = writer.submit(user("second"));
+
+        assertThat(second.get(5, TimeUnit.SECONDS).getLogin()).isEqualTo("second");
+        assertThat(first).isCompleted();
+    }
+
+    @Test
+    public void secondUserWithSameLoginInBatchShouldFailWithLoginAlreadyTaken() throws Exception {
+        recordBatches();
+        writer = writer(10, 2, Duration.ofMinutes(1));
+
+        CompletableFuture<User> first = writer.submit(user("same"));
+        CompletableFuture<User> second = writer.submit(user("SAME"));
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getLogin()).isEqualTo("same");
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+                .withCauseInstanceOf(LoginAlreadyTakenException.class);
+        assertThat(batches).containsExactly(listOf("same"));
+    }
+
+    @Test
+    public void loginTakenInDatabaseShouldFailOnlyItsUser() throws Exception {
+        when(repository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            if (users.stream().anyMatch(user -> user.getLogin().equals("taken"))) {
+                throw new DataIntegrityViolationException("duplicate",
+                        new SQLException("unique index violation", "23505"));
+            }
+            users.forEach(user -> user.setId(1L));
+            return users;
+        });
+        writer = writer(10, 2, Duration.ofMinutes(1));
+
+        CompletableFuture<User> taken = writer.submit(user("taken"));
+        CompletableFuture<User> free = writer.submit(user("free"));
+
+        assertThat(free.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(() -> taken.get(5, TimeUnit.SECONDS))
+                .withCauseInstanceOf(LoginAlreadyTakenException.class);
+    }
+
+    @Test
+    public void submitShouldBeRejectedWhenQueueIsFull() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.insertAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        });
+        writer = writer(1, 1, Duration.ZERO);
+
+        CompletableFuture<User> first = writer.submit(user("first"));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<User> queued = writer.submit(user("queued"));
+        assertThatExceptionOfType(RegistrationCapacityExceededException.class)
+                .isThrownBy(() -> writer.submit(user("rejected")));
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shutdownShouldWriteQueuedUsers() throws Exception {
+        recordBatches();
+        writer = writer(10, 100, Duration.ofMinutes(1));
+
+        CompletableFuture<User> queued = writer.submit(user("queued"));
+        writer.shutdown();
+
+        assertThat(queued).isCompleted();
+        assertThat(queued.get().getId()).isNotNull();
+        assertThatExceptionOfType(RegistrationCapacityExceededException.class)
+                .isThrownBy(() -> writer.submit(user("late")));
+    }
+
+    @Test
+    public void userSubmittedWhileWriterStopsShouldBeWrittenOrRejected() throws Exception {
+        recordBatches();
+        for (int attempt = 0; attempt < 50; attempt++) {
+            RegistrationWriter stopping = writer(10_000, 100, Duration.ZERO);
+            List<CompletableFuture<User>> accepted = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch submitting = new CountDownLatch(1);
+            Thread submitter = new Thread(() -> {
+                submitting.countDown();
+                for (int i = 0; ; i++) {
+                    try {
+                        accepted.add(stopping.submit(user("user" + i)));
+                    } catch (RegistrationCapacityExceededException e) {
+                        return;
+                    }
+                }
+            });
+            submitter.start();
+            assertThat(submitting.await(5, TimeUnit.SECONDS)).isTrue();
+
+            stopping.shutdown();
+            submitter.join(TimeUnit.SECONDS.toMillis(5));
+
+            for (CompletableFuture<User> result : accepted) {
+                assertThat(result).isDone();
+            }
+        }
+    }
+
+    private RegistrationWriter writer(int queueCapacity, int batchSize, Duration maxDelay) {
+        return new RegistrationWriter(repository, queueCapacity, batchSize, maxDelay, 1, new SimpleMeterRegistry());
+    }
+
+    private void recordBatches() {
+        when(repository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            batches.add(users.stream().map(User::getLogin).collect(Collectors.toList()));
+            long id = batches.size() * 1000L;
+            for (User user : users) {
+                user.setId(id++);
+            }
+            return users;
+        });
+    }
+
+    private static List<String> listOf(String... logins) {
+        List<String> list = new ArrayList<>();
+        Collections.addAll(list, logins);
+        return list;
+    }
+
+    private static User user(String login) {
+        return new User(login, "$2a$10$hash", LocalDate.of(2000, 1, 1), Role.USER);
+    }
+}
@@ -1,23 +1,42 @@
 package com.icl.auth.service;
 
+import com.icl.auth.audit.AuditEvent;
+import com.icl.auth.audit.AuditLog;
 import com.icl.auth.exception.UserNotFoundException;
 import com.icl.auth.exception.WrongPasswordException;
+import com.icl.auth.metrics.AuthMetrics;
 import com.icl.auth.model.User;
 import com.icl.auth.repository.UserRepository;
+import com.icl.auth.security.PasswordHashingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.time.LocalDate;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -32,6 +51,24 @@ public class UserAuthorizationServiceTest {
     @MockBean
     private PasswordEncoder encoder;
 
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(1, 1, 1, new SimpleMeterRegistry());
+
+    @Spy
+    private AuthMetrics authMetrics = new AuthMetrics(new SimpleMeterRegistry());
+
+    @Mock
+    private ObjectProvider<DatabaseExecutor> databaseExecutor;
+
+    @Mock
+    private ObjectProvider<RegistrationWriter> registrationWriter;
+
+    @Mock
+    private ObjectProvider<AuditLog> auditLog;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.initMocks(this);
@@ -45,11 +82,26 @@ public class UserAuthorizationServiceTest {
         assertThat(userAuthorizationService.save(user)).isEqualTo(user);
     }
 
+    @Test
+    public void saveShouldValidateAndEncodeRawPasswordOfNewUser() {
+        User newUser = new User("login", "secret!", LocalDate.of(2000, 1, 1), null);
+        when(encoder.encode("secret!")).thenReturn("$2a$10$hash");
+        when(userRepository.save(newUser)).thenReturn(newUser);
+        assertThat(userAuthorizationService.save(newUser).getPassword()).isEqualTo("$2a$10$hash");
+    }
+
+    @Test
+    public void saveShouldThrowConstraintViolationExceptionForInvalidNewUser() {
+        User newUser = new User("login", "nopunctuation", LocalDate.of(2000, 1, 1), null);
+        assertThatExceptionOfType(ConstraintViolationException.class)
+                .isThrownBy(() -> userAuthorizationService.save(newUser));
+    }
+
     @Test
     public void authorizeShouldReturnUser() throws UserNotFoundException, WrongPasswordException {
         when(userRepository.findByLogin(anyString())).thenReturn(Optional.of(user));
         when(encoder.matches(anyString(), anyString())).thenReturn(true);
-        when(user.getPassword()).thenReturn(anyString());
+        when(user.getPassword()).thenReturn("hash");
         assertThat(userAuthorizationService.authorize("login", "password"))
                 .isEqualTo(Optional.of(user));
     }
@@ -58,9 +110,10 @@ public class UserAuthorizationServiceTest {
     public void authorizeShouldThrowWrongPasswordException() {
         when(userRepository.findByLogin(anyString())).thenReturn(Optional.of(user));
         when(encoder.matches(anyString(), anyString())).thenReturn(false);
-        when(user.getPassword()).thenReturn(anyString());
+        when(user.getPassword()).thenReturn("hash");
         assertThatExceptionOfType(WrongPasswordException.class)
-                .isThrownBy(() -> userAuthorizationService.authorize("login", "password"));
+                .isThrownBy(() -> userAuthorizationService.authorize("login", "password"))
+                .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
     }
 
     @Test
@@ -69,4 +122,137 @@ public class UserAuthorizationServiceTest {
         assertThatExceptionOfType(UserNotFoundException.class)
                 .isThrownBy(() -> userAuthorizationService.authorize("login", "password"));
     }
+
+    @Test
+    public void authorizeAsyncShouldReturnUser() throws Exception {
+        when(userRepository.findByLogin(anyString())).thenReturn(Optional.of(user));
+        when(encoder.matches(anyString(), anyString())).thenReturn(true);
+        when(user.getPassword()).thenReturn("hash");
+        assertThat(userAuthorizationService.authorizeAsync("login", "password").get())
+                .isEqualTo(Optional.of(user));
+    }
+
+    @Test
+    public void authorizeAsyncShouldFailWithWrongPasswordException() {
+        when(userRepository.findByLogin(anyString())).thenReturn(Optional.of(user));
+        when(encoder.matches(anyString(), anyString())).thenReturn(false);
+        when(user.getPassword()).thenReturn("hash");
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(() -> userAuthorizationService.authorizeAsync("login", "password").get())
+                .withCauseInstanceOf(WrongPasswordException.class);
+    }
+
+    @Test
+    public void authorizeAsyncShouldFailWithUserNotFoundException() {
+        when(userRepository.findByLogin(anyString())).thenReturn(Optional.empty());
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(() -> userAuthorizationService.authorizeAsync("login", "password").get())
+                .withCauseInstanceOf(UserNotFoundException.class);
+    }
+
+    @Test
+    public void authorizeAsyncShouldUpgradeLegacyHashInBackground() throws Exception {
+        when(userRepository.findByLogin(anyString())).thenReturn(Optional.of(user));
+        when(user.getId()).thenReturn(1L);
+        when(user.getPassword()).thenReturn("$2a$10$legacy");
+        when(encoder.matches("password", "$2a$10$legacy")).thenReturn(true);
+        when(encoder.upgradeEncoding("$2a$10$legacy")).thenReturn(true);
+        when(encoder.encode("password")).thenReturn("{bcrypt}$2a$12$upgraded");
+
+        assertThat(userAuthorizationService.authorizeAsync("login", "password").get()).contains(user);
+        verify(userRepository, timeout(1000))
+                .updatePassword(1L, "$2a$10$legacy", "{bcrypt}$2a$12$upgraded");
+    }
+
+    @Test
+    public void authorizeShouldNotRehashUpToDateHash() throws Exception {
+        when(userRepository.findByLogin(anyString())).thenReturn(Optional.of(user));
+        when(user.getPassword()).thenReturn("{bcrypt}$2a$12$current");
+        when(encoder.matches(anyString(), anyString())).thenReturn(true);
+
+        userAuthorizationService.authorize("login", "password");
+        verify(userRepository, never()).updatePassword(any(), any(), any());
+    }
+
+    @Test
+    public void authorizeAsyncInAsyncModeShouldLookUpUserOnDatabaseExecutor() throws Exception {
+        AtomicReference<String> lookupThread = new AtomicReference<>();
+        when(userRepository.findByLogin("login")).thenAnswer(invocation -> {
+            lookupThread.set(Thread.currentThread().getName());
+            return Optional.of(user);
+        });
+        when(user.getPassword()).thenReturn("hash");
+        when(encoder.matches("password", "hash")).thenReturn(true);
+
+        assertThat(asyncModeService().authorizeAsync("login", "password").get()).contains(user);
+        assertThat(lookupThread.get()).startsWith("database-");
+    }
+
+    @Test
+    public void saveAsyncInAsyncModeShouldEncodePasswordAndSaveUserOnExecutors() throws Exception {
+        User newUser = new User("login", "secret!", LocalDate.of(2000, 1, 1), null);
+        AtomicReference<String> saveThread = new AtomicReference<>();
+        when(encoder.encode("secret!")).thenReturn("$2a$10$hash");
+        when(userRepository.save(newUser)).thenAnswer(invocation -> {
+            saveThread.set(Thread.currentThread().getName());
+            return newUser;
+        });
+
+        assertThat(asyncModeService().saveAsync(newUser).get().getPassword()).isEqualTo("$2a$10$hash");
+        assertThat(saveThread.get()).startsWith("database-");
+    }
+
+    private UserAuthorizationServiceImpl asyncModeService() {
+        when(databaseExecutor.getIfAvailable())
+                .thenReturn(new DatabaseExecutor(1, 1, 1, new SimpleMeterRegistry()));
+        return new UserAuthorizationServiceImpl(userRepository, encoder, hashingExecutor, validator, authMetrics,
+                databaseExecutor, registrationWriter, auditLog);
+    }
+
+    @Test
+    public void saveAsyncInBatchedModeShouldQueueEncodedUserToRegistrationWriter() throws Exception {
+        User newUser = new User("login", "secret!", LocalDate.of(2000, 1, 1), null);
+        RegistrationWriter writer = Mockito.mock(RegistrationWriter.class);
+        when(writer.submit(newUser)).thenReturn(CompletableFuture.completedFuture(newUser));
+        when(registrationWriter.getIfAvailable()).thenReturn(writer);
+        when(encoder.encode("secret!")).thenReturn("$2a$10$hash");
+
+        UserAuthorizationServiceImpl service = new UserAuthorizationServiceImpl(userRepository, encoder,
+                hashingExecutor, validator, authMetrics, databaseExecutor, registrationWriter, auditLog);
+
+        assertThat(service.saveAsync(newUser).get().getPassword()).isEqualTo("$2a$10$hash");
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    public void authorizeAsyncShouldAppendOutcomeToAuditLog() throws Exception {
+        AuditLog log = Mockito.mock(AuditLog.class);
+        when(auditLog.getIfAvailable()).thenReturn(log);
+        when(userRepository.findByLogin("login")).thenReturn(Optional.of(user));
+        when(userRepository.findByLogin("unknown")).thenReturn(Optional.empty());
+        when(user.getId()).thenReturn(1L);
+        when(user.getPassword()).thenReturn("hash");
+        when(encoder.matches("password", "hash")).thenReturn(true);
+        UserAuthorizationServiceImpl service = new UserAuthorizationServiceImpl(userRepository, encoder,
+                hashingExecutor, validator, authMetrics, databaseExecutor, registrationWriter, auditLog);
+
+        service.authorizeAsync("login", "password").get();
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(() -> service.authorizeAsync("unknown", "password").get());
+
+        verify(log, timeout(1000)).append(AuditEvent.Type.LOGIN, AuthMetrics.SUCCESS, "login", 1L);
+        verify(log, timeout(1000)).append(AuditEvent.Type.LOGIN, AuthMetrics.USER_NOT_FOUND, "unknown", null);
+    }
+
+    @Test
+    public void saveShouldAppendRegistrationToAuditLog() {
+        AuditLog log = Mockito.mock(AuditLog.class);
+        when(auditLog.getIfAvailable()).thenReturn(log);
+        User newUser = new User("login", "nopunctuation", LocalDate.of(2000, 1, 1), null);
+        UserAuthorizationServiceImpl service = new UserAuthorizationServiceImpl(userRepository, encoder,
+                hashingExecutor, validator, authMetrics, databaseExecutor, registrationWriter, auditLog);
+
+        assertThatExceptionOfType(ConstraintViolationException.class).isThrownBy(() -> service.save(newUser));
+        verify(log).append(AuditEvent.Type.REGISTRATION, AuthMetrics.VALIDATION_FAILURE, "login", null);
+    }
 }
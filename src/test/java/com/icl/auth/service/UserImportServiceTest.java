@@ -0,0 +1,88 @@
+package com.icl.auth.service;
+
+import com.icl.auth.dto.ImportReport;
+import com.icl.auth.model.User;
+import com.icl.auth.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlGroup;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "auth.import.batch-size=2")
+@SqlGroup(value = @Sql(scripts = "classpath:data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD))
+public class UserImportServiceTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    public void importCsvShouldImportValidRowsAndReportFailedOnes() throws Exception {
+        ImportReport report = userImportService.importCsv(stream(
+                "login,password,dateOfBirth\n" +
+                        "alice,\"secret,!\",1990-01-01\n" +
+                        "bob,secret!,1991-02-03\n" +
+                        "john,secret!,1992-01-01\n" +
+                        "weak,nopunctuation,1993-01-01\n" +
+                        "\n" +
+                        "carol,secret!,not a date\n" +
+                        "dave,secret!\n" +
+                        "erin,secret!,1994-01-01\n"));
+
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getFailed()).isEqualTo(4);
+        assertThat(report.getErrors())
+                .extracting(ImportReport.RowError::getRow, ImportReport.RowError::getLogin)
+                .containsExactlyInAnyOrder(
+                        tuple(4L, "john"),
+                        tuple(5L, "weak"),
+                        tuple(7L, "carol"),
+                        tuple(8L, null));
+        assertThat(report.getErrors())
+                .filteredOn(error -> "john".equals(error.getLogin()))
+                .extracting(ImportReport.RowError::getMessage)
+                .containsExactly("login already exists");
+
+        User alice = userRepository.findByLogin("alice").orElseThrow(AssertionError::new);
+        assertThat(alice.getId()).isNotNull();
+        assertThat(alice.getDateOfBirth()).isEqualTo(LocalDate.of(1990, 1, 1));
+        assertThat(passwordEncoder.matches("secret,!", alice.getPassword())).isTrue();
+        assertThat(userRepository.findByLogin("erin")).isPresent();
+    }
+
+    @Test
+    public void importJsonShouldAcceptArrayAndNewlineDelimitedObjects() throws Exception {
+        ImportReport array = userImportService.importJson(stream(
+                "[{\"login\":\"alice\",\"password\":\"secret!\",\"dateOfBirth\":\"1990-01-01\"}," +
+                        "{\"login\":\"q\",\"password\":\"secret!\",\"dateOfBirth\":\"1990-01-01\"}]"));
+        assertThat(array.getImported()).isEqualTo(1);
+        assertThat(array.getFailed()).isEqualTo(1);
+
+        ImportReport lines = userImportService.importJson(stream(
+                "{\"login\":\"bob\",\"password\":\"secret!\",\"dateOfBirth\":\"1990-01-01\"}\n" +
+                        "{\"login\":\"carol\",\"password\":\"secret!\",\"dateOfBirth\":\"yesterday\"}\n" +
+                        "{\"login\":\"dave\",\"password\":\"secret!\",\"dateOfBirth\":\"1990-01-01\"}\n"));
+        assertThat(lines.getImported()).isEqualTo(2);
+        assertThat(lines.getFailed()).isEqualTo(1);
+        assertThat(userRepository.findByLogin("dave")).isPresent();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
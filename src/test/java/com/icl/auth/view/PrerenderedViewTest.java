@@ -0,0 +1,36 @@
+package com.icl.auth.view;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.View;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PrerenderedViewTest {
+    private final AtomicInteger renders = new AtomicInteger();
+    private final View delegate = (model, request, response) -> {
+        renders.incrementAndGet();
+        response.setContentType("text/html;charset=UTF-8");
+        response.getOutputStream().write("<p>page</p>".getBytes(StandardCharsets.UTF_8));
+    };
+
+    @Test
+    public void pageShouldBeRenderedOnceAndWrittenForEveryRequest() throws Exception {
+        PrerenderedView view = new PrerenderedView(delegate);
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            view.render(Collections.singletonMap("login", "user" + i), new MockHttpServletRequest(), response);
+
+            assertThat(response.getContentAsString()).isEqualTo("<p>page</p>");
+            assertThat(response.getContentType()).isEqualTo("text/html;charset=UTF-8");
+            assertThat(response.getContentLength()).isEqualTo(11);
+        }
+        assertThat(renders.get()).isEqualTo(1);
+    }
+}
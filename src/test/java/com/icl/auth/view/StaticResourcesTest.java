@@ -0,0 +1,83 @@
+package com.icl.auth.view;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.view.ContentNegotiatingViewResolver;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+public class StaticResourcesTest {
+    private static final Pattern STYLESHEET = Pattern.compile("/css/styles-[0-9a-f]{32}\\.css");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ContentNegotiatingViewResolver viewResolver;
+
+    @Test
+    public void pagesWithoutUserDataShouldBePrerendered() throws Exception {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            assertThat(viewResolver.resolveViewName("login", Locale.ROOT)).isInstanceOf(PrerenderedView.class);
+            assertThat(viewResolver.resolveViewName("register", Locale.ROOT)).isInstanceOf(PrerenderedView.class);
+            assertThat(viewResolver.resolveViewName("securedPage", Locale.ROOT))
+                    .isNotInstanceOf(PrerenderedView.class);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    public void pagesShouldLinkContentHashedResourcesCachedForAYear() throws Exception {
+        String page = mockMvc.perform(get("/register"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("/js/passwordConfirm-")))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Matcher stylesheet = STYLESHEET.matcher(page);
+        assertThat(stylesheet.find()).isTrue();
+
+        mockMvc.perform(get(stylesheet.group()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public"));
+    }
+
+    @Test
+    public void pagesShouldBeCompressed() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/register")
+                .openConnection();
+        connection.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        try {
+            assertThat(connection.getResponseCode()).isEqualTo(HttpURLConnection.HTTP_OK);
+            assertThat(connection.getHeaderField(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -11,6 +11,7 @@ import javax.validation.Validation;
 import javax.validation.Validator;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.Collections;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -58,5 +59,13 @@ public class UserConstraintsTest {
                         LocalDate.now().minus(5, ChronoUnit.DAYS),
                         Role.USER));
         assertThat(violations.size()).isEqualTo(0);
+
+        violations = validator.validate(
+                new User("1234",
+                        String.join("", Collections.nCopies(70, "w")) + "\u00e9!",
+                        LocalDate.now().minus(5, ChronoUnit.DAYS),
+                        Role.USER));
+        assertThat(violations).extracting(ConstraintViolation::getMessage)
+                .containsExactly("password must not be longer than 72 bytes");
     }
 }
@@ -0,0 +1,11 @@
+create table if not exists "user" (
+    id bigint auto_increment primary key,
+    date_of_birth date not null,
+    login varchar(255) not null,
+    login_normalized varchar(255) not null unique,
+    password varchar(255) not null,
+    role varchar(255) not null,
+    version bigint not null
+);
+merge into "user" (id, date_of_birth, login, login_normalized, password, role, version) key (id) values
+(100, '2000-01-01', 'replicated', 'replicated', '$2a$10$QJbsbRnB.L2zGZtZonh3mOHG6UC7XXTwxK5eodJmTD9kgcxLpkXVK', 'USER', 0);